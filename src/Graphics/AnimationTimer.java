@@ -1,33 +1,66 @@
 package Graphics;
 
-import java.util.function.DoubleConsumer;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.DoublePredicate;
 
 /**
  * Simple timer that provides a more stable frame rate than Swing's built-in timer,
  * and passes a dt to its callback.
+ * <p>
+ * The callback returns whether there is more animating to do. When it returns false, the timer
+ * thread parks, using no CPU, until someone calls {@link #wake()}.
  */
 class AnimationTimer implements Runnable {
     private final long targetInterval;
-    private final DoubleConsumer callback;
+    private final DoublePredicate callback;
+    private final Thread thread;
+    private volatile boolean wakeRequested;
 
-    AnimationTimer(long targetInterval, DoubleConsumer callback) {
+    AnimationTimer(long targetInterval, DoublePredicate callback) {
         this.targetInterval = targetInterval;
         this.callback = callback;
-        
-        Thread thread = new Thread(this, "animation timer");
+
+        thread = new Thread(this, "animation timer");
         thread.setPriority((Thread.NORM_PRIORITY + Thread.MAX_PRIORITY) / 2);
         thread.start();
     }
 
+    /**
+     * Makes the timer run another frame soon, resuming it if it is parked. Safe to call from any
+     * thread, and cheap enough to call on every change: after the first call per frame, it only
+     * reads a flag.
+     */
+    void wake() {
+        if (!wakeRequested) {
+            wakeRequested = true;
+            LockSupport.unpark(thread);
+        }
+    }
+
     @Override
     public void run() {
         long lastUpdate = System.currentTimeMillis() - targetInterval;
         while (true) {
             long curTime = System.currentTimeMillis();
 
-            callback.accept((curTime - lastUpdate) / 1000.0);
+            // Cleared before the callback, so a wake() that arrives while it runs is not lost
+            wakeRequested = false;
+            boolean active = callback.test((curTime - lastUpdate) / 1000.0);
 
             lastUpdate = curTime;
+            if (!active) {
+                while (!wakeRequested) {
+                    LockSupport.park(this);
+                    if (Thread.interrupted()) {
+                        System.err.println(getClass().getSimpleName() + " interrupted");
+                        return;
+                    }
+                }
+                // Time spent parked isn’t animation time: resume as if one frame had passed
+                lastUpdate = System.currentTimeMillis() - targetInterval;
+                continue;
+            }
+
             try {
                 Thread.sleep(Math.max(0, lastUpdate + targetInterval - System.currentTimeMillis()));
             } catch (InterruptedException e) {
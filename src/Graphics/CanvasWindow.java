@@ -30,6 +30,7 @@ import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.DoubleConsumer;
+import java.util.function.DoublePredicate;
 
 import javax.imageio.ImageIO;
 import javax.swing.JComponent;
@@ -79,8 +80,9 @@ public class CanvasWindow {
     private boolean drawingInitiated = false, redrawNeeded = false;
     private final Object repaintLock = new Object();
 
-    private List<DoubleConsumer> animations = new ArrayList<>();
-    private AnimationTimer animationTimer;
+    private List<DoublePredicate> animations = new ArrayList<>();
+    private final List<Tween> tweens = new ArrayList<>();
+    private volatile AnimationTimer animationTimer;
 
     private Point curMousePos, prevMousePos;
     private Set<Key> keysPressed = EnumSet.noneOf(Key.class);
@@ -141,7 +143,7 @@ public class CanvasWindow {
         // redraw that batches changes from the various animations and event handlers.
         mainThreadWatcher.afterThreadExits(() -> {
             content.addObserver(obj ->
-                startRefreshTimer()
+                wakeRefreshTimer()
             );
         });
     }
@@ -246,12 +248,12 @@ public class CanvasWindow {
 
     private void updateEmbeddedComponents() {
         Set<JComponent> updatedComponents = new LinkedHashSet<>();
-        content.forEachDescendant(Point.ORIGIN, (gobj, pos) -> {
+        content.forEachDescendant(0, 0, (gobj, x, y) -> {
             JComponent component = gobj.getEmbeddedComponent();
             if (component != null) {
                 component.setLocation(
-                    (int) Math.round(pos.getX()),
-                    (int) Math.round(pos.getY()));
+                    (int) Math.round(x),
+                    (int) Math.round(y));
                 updatedComponents.add(component);
             }
         });
@@ -644,30 +646,99 @@ public class CanvasWindow {
      * runs.
      */
     public void animate(DoubleConsumer animation) {
+        animateWhenActive(dt -> {
+            animation.accept(dt);
+            return true;
+        });
+    }
+
+    /**
+     * Like {@link #animate(DoubleConsumer)}, except that the callback returns whether it still has
+     * work to do, such as an object that hasn’t reached its destination yet. When no animation
+     * has work to do, no tween is playing, and nothing has changed, the canvas stops its animation
+     * timer instead of redrawing 60 times a second for nothing. It starts again, calling every
+     * animation, on the next input event, change to the graphics, or call to animate() or play().
+     * <p>
+     * Use this for animations that only react to something else happening. Something that
+     * changes on its own with time, like a clock, should use animate() instead.
+     */
+    public void animateWhenActive(DoublePredicate animation) {
         animations.add(animation);
-        mainThreadWatcher.afterThreadExits(this::startRefreshTimer);
+        mainThreadWatcher.afterThreadExits(this::wakeRefreshTimer);
+    }
+
+    /**
+     * Starts the given tween, which then advances on each animation frame until it finishes.
+     */
+    public void play(Tween tween) {
+        mainThreadWatcher.afterThreadExits(() -> {
+            tweens.add(tween);
+            wakeRefreshTimer();
+        });
     }
 
-    private void startRefreshTimer() {
-        if (animationTimer != null) {
+    /**
+     * Starts the animation timer, or resumes it if it has stopped for lack of anything to do.
+     * Called for every change to the graphics, from any thread, so it does no more than check a
+     * flag once the timer is running.
+     */
+    private void wakeRefreshTimer() {
+        AnimationTimer timer = animationTimer;
+        if (timer != null) {
+            timer.wake();
             return;
         }
+        synchronized (repaintLock) {
+            if (animationTimer != null) {
+                return;
+            }
+            System.out.println("Starting CanvasWindow refresh timer");
+            animationTimer = new AnimationTimer(TARGET_ANIMATION_RATE, dt -> {
+                boolean[] active = { false };
+                try {
+                    SwingUtilities.invokeAndWait(() -> {  // waiting matters: AnimationTimer compensates for actual time taken
+                        active[0] = animationFrame(dt);
+                    });
+                } catch (InvocationTargetException | InterruptedException e) {
+                    System.err.println("Exception from animation callback:");
+                    e.printStackTrace();
+                    System.exit(1);
+                }
+                return active[0];
+            });
+        }
+    }
 
-        System.out.println("Starting CanvasWindow refresh timer");
-        animationTimer = new AnimationTimer(TARGET_ANIMATION_RATE, dt -> {
-            try {
-                SwingUtilities.invokeAndWait(() -> {  // waiting matters: AnimationTimer compensates for actual time taken
-                    for (var animation : animations) {
-                        animation.accept(dt);
-                    }
-                    draw();
-                });
-            } catch (InvocationTargetException | InterruptedException e) {
-                System.err.println("Exception from animation callback:");
-                e.printStackTrace();
-                System.exit(1);
+    /**
+     * Runs every animation and tween for one frame and draws the result. Returns whether there is
+     * anything left to animate: if not, the timer can stop until something changes.
+     */
+    private boolean animationFrame(double dt) {
+        boolean active = false;
+        for (var animation : animations) {
+            active |= animation.test(dt);  // not ||: every animation runs every frame
+        }
+        advanceTweens(dt);
+        draw();
+
+        synchronized (repaintLock) {
+            // Something may have changed during draw(), e.g. from another thread
+            return active || !tweens.isEmpty() || redrawNeeded;
+        }
+    }
+
+    /**
+     * Advances every playing tween, dropping the ones that have finished. Indexed because a
+     * tween’s onFinish action may play another.
+     */
+    private void advanceTweens(double dt) {
+        for (int i = 0; i < tweens.size(); ) {
+            if (tweens.get(i).advance(dt)) {
+                i++;
+            } else {
+                tweens.remove(i);
             }
-        });
+        }
     }
 
     /**
@@ -677,6 +748,9 @@ public class CanvasWindow {
         mainThreadWatcher.afterThreadExits(() -> {
             action.run();
             draw();
+            if (!animations.isEmpty()) {
+                wakeRefreshTimer();  // the event may have given an animation something to do
+            }
         });
     }
 }
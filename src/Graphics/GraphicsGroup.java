@@ -6,7 +6,6 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.function.BiConsumer;
 
 /**
  * A group of graphical objects that can be added, moved, and removed as a single unit.
@@ -122,9 +121,8 @@ public class GraphicsGroup extends GraphicsObject implements GraphicsObserver {
      */
     @Override
     public GraphicsObject getElementAtLocalCoordinates(double x, double y) {
-        for (var it = children.listIterator(children.size()); it.hasPrevious(); ) {
-            GraphicsObject obj = it.previous();
-            GraphicsObject hit = obj.getElementAt(x, y);
+        for (int i = children.size() - 1; i >= 0; i--) {
+            GraphicsObject hit = children.get(i).getElementAt(x, y);
             if (hit != null) {
                 return hit;
             }
@@ -181,12 +179,12 @@ public class GraphicsGroup extends GraphicsObject implements GraphicsObserver {
         return children.iterator();
     }
 
-    void forEachDescendant(Point origin, BiConsumer<GraphicsObject,Point> callback) {
-        super.forEachDescendant(origin, callback);
+    void forEachDescendant(double originX, double originY, DescendantVisitor visitor) {
+        super.forEachDescendant(originX, originY, visitor);
 
-        Point groupOrigin = origin.add(getPosition());
+        double groupX = originX + getX(), groupY = originY + getY();
         for (GraphicsObject child : children) {
-            child.forEachDescendant(groupOrigin, callback);
+            child.forEachDescendant(groupX, groupY, visitor);
         }
     }
 
@@ -2,11 +2,8 @@ package Graphics;
 
 import java.awt.Graphics2D;
 import java.awt.geom.AffineTransform;
-import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.function.BiConsumer;
+import java.util.Arrays;
 
 import javax.swing.JComponent;
 
@@ -17,11 +14,19 @@ import javax.swing.JComponent;
  * @author Bret Jackson
  */
 public abstract class GraphicsObject {
-    private List<GraphicsObserver> observers = new ArrayList<GraphicsObserver>();
+    private static final GraphicsObserver[] NO_OBSERVERS = {};
+
+    // Copied on write, so changed() can walk a snapshot without allocating, and an observer that
+    // adds or removes observers while being notified doesn’t make the others skipped or repeated
+    private GraphicsObserver[] observers = NO_OBSERVERS;
     private CanvasWindow canvas;
 
+    // Positions and scales are kept as primitives, so that code moving objects every frame does
+    // not allocate Points. The Point versions are created only when someone asks for them.
+    private double x, y;
     private Point position = Point.ORIGIN;
     private double rotation = 0;
+    private double scaleX = 1, scaleY = 1;
     private Point scale = Point.ONE_ONE;
     private Point anchor;
     private AffineTransform transform = new AffineTransform(), inverseTransform = new AffineTransform();
@@ -45,6 +50,9 @@ public abstract class GraphicsObject {
      * not the top of the text.
      */
     public final Point getPosition() {
+        if (position == null) {
+            position = new Point(x, y);
+        }
         return position;
     }
 
@@ -55,13 +63,18 @@ public abstract class GraphicsObject {
      * @param y position
      */
     public final void setPosition(double x, double y) {
-        setPosition(new Point(x, y));
+        this.x = x;
+        this.y = y;
+        this.position = null;
+        updateTransform();
     }
 
     /**
      * Moves this object to the given position.
      */
     public final void setPosition(Point position) {
+        this.x = position.getX();
+        this.y = position.getY();
         this.position = position;
         updateTransform();
     }
@@ -71,14 +84,14 @@ public abstract class GraphicsObject {
      * @see getPosition()
      */
     public final double getX() {
-        return getPosition().getX();
+        return x;
     }
 
     /**
      * Changes this object's horizontal position while preserving its vertical position.
      */
     public final void setX(double x) {
-        setPosition(new Point(x, getY()));
+        setPosition(x, getY());
     }
 
     /**
@@ -86,14 +99,14 @@ public abstract class GraphicsObject {
      * @see getPosition()
      */
     public final double getY() {
-        return getPosition().getY();
+        return y;
     }
 
     /**
      * Changes this object's vertical position while preserving its horizontal position.
      */
     public final void setY(double y) {
-        setPosition(new Point(getX(), y));
+        setPosition(getX(), y);
     }
 
     /**
@@ -101,11 +114,32 @@ public abstract class GraphicsObject {
      */
     public final Point getCenter() {
         Rectangle2D bounds = getBounds();
-        // width and height can sometimes be NaN, e.g. in an empty Path. If the bounds
-        // have NaNs, just use the nominal position from getPosition().
-        return new Point(
-            getX() + zeroIfNaN(bounds.getCenterX()),
-            getY() + zeroIfNaN(bounds.getCenterY()));
+        return new Point(centerX(bounds), centerY(bounds));
+    }
+
+    /**
+     * Returns the horizontal center of this shape's bounding box.
+     */
+    public final double getCenterX() {
+        return centerX(getBounds());
+    }
+
+    /**
+     * Returns the vertical center of this shape's bounding box.
+     */
+    public final double getCenterY() {
+        return centerY(getBounds());
+    }
+
+    // width and height can sometimes be NaN, e.g. in an empty Path. If the bounds
+    // have NaNs, just use the nominal position from getPosition().
+
+    private double centerX(Rectangle2D bounds) {
+        return getX() + zeroIfNaN(bounds.getCenterX());
+    }
+
+    private double centerY(Rectangle2D bounds) {
+        return getY() + zeroIfNaN(bounds.getCenterY());
     }
 
     private static double zeroIfNaN(double x) {
@@ -116,28 +150,29 @@ public abstract class GraphicsObject {
      * Moves the shape so its bounding box is centered at the given point.
      */
     public final void setCenter(double x, double y) {
-        setCenter(new Point(x, y));
+        Rectangle2D bounds = getBounds();
+        moveBy(x - centerX(bounds), y - centerY(bounds));
     }
 
     /**
      * Moves the shape so its bounding box is centered at the given point.
      */
     public final void setCenter(Point point) {
-        moveBy(point.subtract(getCenter()));
+        setCenter(point.getX(), point.getY());
     }
 
     /**
      * Move the shape from its current (x, y) position to (x + dx, y + dy).
      */
     public final void moveBy(double dx, double dy) {
-        moveBy(new Point(dx, dy));
+        setPosition(getX() + dx, getY() + dy);
     }
 
     /**
      * Offsets the shape from its current position within its parent by the given delta.
      */
     public final void moveBy(Point delta) {
-        setPosition(getPosition().add(delta));
+        moveBy(delta.getX(), delta.getY());
     }
 
     /**
@@ -183,7 +218,7 @@ public abstract class GraphicsObject {
      * @see setScale(double,double)
      */
     public final double getScaleX() {
-        return scale.getX();
+        return scaleX;
     }
     
     /**
@@ -191,7 +226,7 @@ public abstract class GraphicsObject {
      * @see setScale(double,double)
      */
     public final double getScaleY() {
-        return scale.getY();
+        return scaleY;
     }
 
     /**
@@ -199,6 +234,9 @@ public abstract class GraphicsObject {
      * @see setScale(double,double)
      */
     public final Point getScale() {
+        if (scale == null) {
+            scale = new Point(scaleX, scaleY);
+        }
         return scale;
     }
 
@@ -229,7 +267,9 @@ public abstract class GraphicsObject {
      * @see setAnchor(Point)
      */
     public final void setScale(double scaleX, double scaleY) {
-        this.scale = new Point(scaleX, scaleY);
+        this.scaleX = scaleX;
+        this.scaleY = scaleY;
+        this.scale = null;
         updateTransform();
     }
 
@@ -284,34 +324,41 @@ public abstract class GraphicsObject {
     }
 
     private void updateTransform() {
-        Point transformAnchor = (anchor != null) ? anchor.add(position) : getCenter();
-        transform.setToTranslation(transformAnchor.getX(), transformAnchor.getY());
+        double anchorX, anchorY;
+        if (anchor != null) {
+            anchorX = anchor.getX() + x;
+            anchorY = anchor.getY() + y;
+        } else {
+            Rectangle2D bounds = getBounds();
+            anchorX = centerX(bounds);
+            anchorY = centerY(bounds);
+        }
+        transform.setToTranslation(anchorX, anchorY);
         transform.rotate(Math.toRadians(rotation));
-        transform.scale(scale.getX(), scale.getY());
-        transform.translate(-transformAnchor.getX(), -transformAnchor.getY());
-        transform.translate(position.getX(), position.getY());
+        transform.scale(scaleX, scaleY);
+        transform.translate(-anchorX, -anchorY);
+        transform.translate(x, y);
 
         // Can't just use invert() for this because if
         // either scale is zero, the transform non-invertible
-        inverseTransform.setToTranslation(-position.getX(), -position.getY());
-        inverseTransform.translate(transformAnchor.getX(), transformAnchor.getY());
-        inverseTransform.scale(1 / scale.getX(), 1 / scale.getY());
+        inverseTransform.setToTranslation(-x, -y);
+        inverseTransform.translate(anchorX, anchorY);
+        inverseTransform.scale(1 / scaleX, 1 / scaleY);
         inverseTransform.rotate(Math.toRadians(-rotation));
-        inverseTransform.translate(-transformAnchor.getX(), -transformAnchor.getY());
+        inverseTransform.translate(-anchorX, -anchorY);
 
         changed();
     }
 
-    private Point2D.Double convertToLocal(double x, double y) {
-        Point2D.Double pt = new Point2D.Double(x, y);
-        inverseTransform.transform(pt, pt);
-        return pt;
+    // These apply a transform to a single coordinate pair without allocating a Point2D. For
+    // finite coordinates, they give the same results as AffineTransform.transform().
+
+    private static double transformX(AffineTransform transform, double x, double y) {
+        return x * transform.getScaleX() + y * transform.getShearX() + transform.getTranslateX();
     }
 
-    private Point2D.Double convertFromLocal(double x, double y) {
-        Point2D.Double pt = new Point2D.Double(x, y);
-        transform.transform(pt, pt);
-        return pt;
+    private static double transformY(AffineTransform transform, double x, double y) {
+        return x * transform.getShearY() + y * transform.getScaleY() + transform.getTranslateY();
     }
 
     /**
@@ -321,8 +368,9 @@ public abstract class GraphicsObject {
      * Does not account for appearance, including stroke width and transparency.
      */
     public final boolean testHit(double x, double y) {
-        Point2D.Double pt = convertToLocal(x, y);
-        return testHitInLocalCoordinates(pt.x, pt.y);
+        return testHitInLocalCoordinates(
+            transformX(inverseTransform, x, y),
+            transformY(inverseTransform, x, y));
     }
 
     /**
@@ -338,7 +386,15 @@ public abstract class GraphicsObject {
      * could return true for isInBounds(), but false for testHit().
      */
     public final boolean isInBounds(Point position) {
-        return getBoundsInParent().contains(position.getX(), position.getY());
+        return isInBounds(position.getX(), position.getY());
+    }
+
+    /**
+     * Returns true if (x, y) in the parent's coordinate space is within the bounds of this object.
+     * @see isInBounds(Point)
+     */
+    public final boolean isInBounds(double x, double y) {
+        return getBoundsInParent().contains(x, y);
     }
 
     /**
@@ -351,8 +407,9 @@ public abstract class GraphicsObject {
      * @return object at (x,y) or null if it does not exist.
      */
     public final GraphicsObject getElementAt(double x, double y) {
-        Point2D.Double pt = convertToLocal(x, y);
-        return getElementAtLocalCoordinates(pt.x, pt.y);
+        return getElementAtLocalCoordinates(
+            transformX(inverseTransform, x, y),
+            transformY(inverseTransform, x, y));
     }
 
     /**
@@ -415,15 +472,18 @@ public abstract class GraphicsObject {
     public final Rectangle2D getBoundsInParent() {
         Rectangle2D.Double bounds = new Rectangle2D.Double();
         bounds.setRect(getBounds());
-        Point2D.Double
-            pt0 = convertFromLocal(bounds.getMinX(), bounds.getMinY()),
-            pt1 = convertFromLocal(bounds.getMaxX(), bounds.getMinY()),
-            pt2 = convertFromLocal(bounds.getMinX(), bounds.getMaxY()),
-            pt3 = convertFromLocal(bounds.getMaxX(), bounds.getMaxY());
-        bounds.x      = min(pt0.x, pt1.x, pt2.x, pt3.x);
-        bounds.y      = min(pt0.y, pt1.y, pt2.y, pt3.y);
-        bounds.width  = max(pt0.x, pt1.x, pt2.x, pt3.x) - bounds.x;
-        bounds.height = max(pt0.y, pt1.y, pt2.y, pt3.y) - bounds.y;
+        double
+            minX = bounds.getMinX(), minY = bounds.getMinY(),
+            maxX = bounds.getMaxX(), maxY = bounds.getMaxY();
+        double
+            x0 = transformX(transform, minX, minY), y0 = transformY(transform, minX, minY),
+            x1 = transformX(transform, maxX, minY), y1 = transformY(transform, maxX, minY),
+            x2 = transformX(transform, minX, maxY), y2 = transformY(transform, minX, maxY),
+            x3 = transformX(transform, maxX, maxY), y3 = transformY(transform, maxX, maxY);
+        bounds.x      = min(x0, x1, x2, x3);
+        bounds.y      = min(y0, y1, y2, y3);
+        bounds.width  = max(x0, x1, x2, x3) - bounds.x;
+        bounds.height = max(y0, y1, y2, y3) - bounds.y;
         return bounds;
     }
 
@@ -440,8 +500,16 @@ public abstract class GraphicsObject {
      */
     public abstract Rectangle2D getBounds();
 
-    void forEachDescendant(Point origin, BiConsumer<GraphicsObject,Point> callback) {
-        callback.accept(this, origin.add(getPosition()));
+    /**
+     * Receives each object visited by forEachDescendant(), with its position in canvas coordinates.
+     */
+    @FunctionalInterface
+    interface DescendantVisitor {
+        void visit(GraphicsObject object, double x, double y);
+    }
+
+    void forEachDescendant(double originX, double originY, DescendantVisitor visitor) {
+        visitor.visit(this, originX + getX(), originY + getY());
     }
 
     /**
@@ -506,14 +574,23 @@ public abstract class GraphicsObject {
      * purpose of knowing when to draw it).
      */
     public final void addObserver(GraphicsObserver observer) {
-        observers.add(observer);
+        GraphicsObserver[] added = Arrays.copyOf(observers, observers.length + 1);
+        added[observers.length] = observer;
+        observers = added;
     }
 
     /**
      * Removes the given observer.
      */
     public final void removeObserver(GraphicsObserver observer) {
-        observers.remove(observer);
+        for (int i = 0; i < observers.length; i++) {
+            if (observers[i].equals(observer)) {
+                GraphicsObserver[] removed = Arrays.copyOf(observers, observers.length - 1);
+                System.arraycopy(observers, i + 1, removed, i, observers.length - i - 1);
+                observers = removed;
+                return;
+            }
+        }
     }
 
     /**
@@ -521,6 +598,7 @@ public abstract class GraphicsObject {
      * should call this whenever anything changes that would alter this object's appearance.
      */
     protected void changed() {
+        // Observers registered when the change happened, even if one of them removes itself
         for (GraphicsObserver observer : observers) {
             observer.graphicChanged(this);
         }
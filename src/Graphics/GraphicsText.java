@@ -7,6 +7,7 @@ import java.awt.FontMetrics;
 import java.awt.Graphics2D;
 import java.awt.Paint;
 import java.awt.Shape;
+import java.awt.font.FontRenderContext;
 import java.awt.font.LineBreakMeasurer;
 import java.awt.font.TextAttribute;
 import java.awt.font.TextLayout;
@@ -15,6 +16,7 @@ import java.awt.geom.Area;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.text.AttributedString;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -52,6 +54,25 @@ public class GraphicsText extends GraphicsObject implements Fillable, Strokable
     private Shape textShape;
     private Rectangle2D rawBounds;
 
+    // Laying out text is slow, and the same text is often laid out again: a label set back to an
+    // earlier value, or the same widget shown twice. The shape only depends on the text, font,
+    // alignment and wrapping width, so recently computed shapes are shared by all GraphicsTexts.
+    // They are never modified once computed.
+    private static final int SHAPE_CACHE_SIZE = 256;
+    private static final Map<ShapeKey, LaidOutText> recentShapes =
+        new LinkedHashMap<>(SHAPE_CACHE_SIZE, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ShapeKey, LaidOutText> eldest) {
+                return size() > SHAPE_CACHE_SIZE;
+            }
+        };
+
+    // Text is always laid out for this one context, the dummy graphics’ identity transform, so
+    // that it measures the same before and after it is drawn; Java2D applies the device transform
+    // to the outline when drawing. It is created once. Racing threads may each create one, which
+    // is harmless.
+    private static volatile FontRenderContext measuringContext;
+
     /**
      * Creates drawable text at position (x,y)
      */
@@ -96,7 +117,7 @@ public class GraphicsText extends GraphicsObject implements Fillable, Strokable
         gc.setPaint(curColor);
     }
 
-    private Shape recomputeTextShape(Graphics2D gc) {
+    private Shape recomputeTextShape() {
         if (text == null || text.isEmpty()) {  // textLayout doesn't like empty strings
             return new Rectangle2D.Double(0, 0, 0, 0);
         }
@@ -110,7 +131,7 @@ public class GraphicsText extends GraphicsObject implements Fillable, Strokable
                     }
                     var measurer = new LineBreakMeasurer(
                         new AttributedString(paragraph, Map.of(TextAttribute.FONT, font)).getIterator(),
-                        gc.getFontRenderContext());
+                        measuringContext());
                     return Stream.generate(() -> measurer.nextLayout((float) wrappingWidth))
                         .takeWhile(Objects::nonNull);
                 });
@@ -129,18 +150,77 @@ public class GraphicsText extends GraphicsObject implements Fillable, Strokable
     }
 
     private Shape getTextShape() {
-        // Getting a text shape requires a graphics context. We normally can't get one until we're
-        // painted, but we may want to measure text before it's drawn. This hack creates an almost-
-        // invisible dummy window and uses its graphics. We recompute the text's shape when it's
-        // actually drawn in a real window, in case the real graphics context is different.
+        // Getting a text shape requires a font render context. We normally can't get one until
+        // we're painted, but we may want to measure text before it's drawn, so the shape is laid
+        // out with an almost-invisible dummy image's context, and drawn as is.
         if (textShape == null) {
-            BufferedImage img = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
-            textShape = recomputeTextShape((Graphics2D) img.getGraphics());
-            rawBounds = textShape.getBounds2D();
+            ShapeKey key = new ShapeKey(text, font, alignment, wrappingWidth);
+            LaidOutText laidOut;
+            synchronized (recentShapes) {
+                laidOut = recentShapes.get(key);
+            }
+            if (laidOut == null) {
+                Shape shape = recomputeTextShape();
+                laidOut = new LaidOutText(shape, shape.getBounds2D());
+                synchronized (recentShapes) {
+                    recentShapes.put(key, laidOut);
+                }
+            }
+            textShape = laidOut.shape;
+            rawBounds = laidOut.bounds;
         }
         return textShape;
     }
 
+    private static FontRenderContext measuringContext() {
+        if (measuringContext == null) {
+            BufferedImage img = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+            measuringContext = ((Graphics2D) img.getGraphics()).getFontRenderContext();
+        }
+        return measuringContext;
+    }
+
+    private static class ShapeKey {
+        private final String text;
+        private final Font font;
+        private final TextAlignment alignment;
+        private final double wrappingWidth;
+
+        ShapeKey(String text, Font font, TextAlignment alignment, double wrappingWidth) {
+            this.text = text;
+            this.font = font;
+            this.alignment = alignment;
+            this.wrappingWidth = wrappingWidth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ShapeKey)) {
+                return false;
+            }
+            ShapeKey that = (ShapeKey) o;
+            return Objects.equals(text, that.text)
+                && Objects.equals(font, that.font)
+                && alignment == that.alignment
+                && Double.compare(wrappingWidth, that.wrappingWidth) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(text, font, alignment, wrappingWidth);
+        }
+    }
+
+    private static class LaidOutText {
+        private final Shape shape;
+        private final Rectangle2D bounds;
+
+        LaidOutText(Shape shape, Rectangle2D bounds) {
+            this.shape = shape;
+            this.bounds = bounds;
+        }
+    }
+
     @Override
     protected void changed() {
         metrics = null;
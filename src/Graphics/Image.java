@@ -32,7 +32,7 @@ public class Image extends GraphicsObject {
 
     private static final Map<String,BufferedImage> imageCache = new HashMap<>();
 
-    private static BufferedImage loadImage(String path) {
+    static BufferedImage loadImage(String path) {
         synchronized (imageCache) {
             BufferedImage image = imageCache.get(path);
             if (image == null) {
@@ -4,11 +4,10 @@ import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.Paint;
-import java.awt.Rectangle;
-import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Path2D;
 import java.awt.geom.Rectangle2D;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 
@@ -41,6 +40,12 @@ public class Path extends GraphicsObject implements Strokable, Fillable {
     private boolean isClosed;
     private BasicStroke stroke;
 
+    /**
+     * The vertices as interleaved x and y coordinates, relative to the path’s position so that
+     * they follow the path when it moves. Only the first 2 × vertexCount values are in use. The
+     * shape is rebuilt from these only when they are committed.
+     */
+    private float[] vertices = new float[0];
     private int vertexCount;
 
     /**
@@ -103,30 +108,144 @@ public class Path extends GraphicsObject implements Strokable, Fillable {
     public void setVertices(List<Point> points, boolean closed) {
         Objects.requireNonNull(points, "points");
 
-        shape = new Path2D.Float(GeneralPath.WIND_EVEN_ODD, points.size());
+        ensureVertexCapacity(points.size());
+        int i = 0;
+        for (Point point : points) {
+            vertices[i++] = (float) point.getX();
+            vertices[i++] = (float) point.getY();
+        }
+        vertexCount = points.size();
+        this.isClosed = closed;
+        rebuildShape(0, 0);
+    }
+
+    /**
+     * Changes the vertices of this path to the interleaved coordinates x0, y0, x1, y1, …, reusing
+     * the path’s existing storage instead of allocating Points. This is meant for shapes that
+     * change often, such as charts. The coordinates are relative to the path’s container; the
+     * method ignores the path’s current position.
+     *
+     * @param coordinates Vertex coordinates. Only the first 2 × vertexCount values are used.
+     * @param closed If true, a final line connects the end of the path back to the start, forming
+     *  a polygon.
+     */
+    public void setVertices(double[] coordinates, int vertexCount, boolean closed) {
+        Objects.checkFromIndexSize(0, vertexCount * 2, coordinates.length);
+
+        ensureVertexCapacity(vertexCount);
+        for (int i = 0; i < vertexCount * 2; i++) {
+            vertices[i] = (float) coordinates[i];
+        }
+        this.vertexCount = vertexCount;
+        this.isClosed = closed;
+        rebuildShape(0, 0);
+    }
+
+    /**
+     * Changes the vertices of this path to the interleaved coordinates x0, y0, x1, y1, …, reusing
+     * the path’s existing storage. Like {@link #setVertices(double[], int, boolean)}, but without
+     * any conversion, since the path stores its vertices as floats.
+     */
+    public void setVertices(float[] coordinates, int vertexCount, boolean closed) {
+        Objects.checkFromIndexSize(0, vertexCount * 2, coordinates.length);
+
+        ensureVertexCapacity(vertexCount);
+        System.arraycopy(coordinates, 0, vertices, 0, vertexCount * 2);
+        this.vertexCount = vertexCount;
         this.isClosed = closed;
+        rebuildShape(0, 0);
+    }
 
-        if(points.isEmpty()) {
+    /**
+     * Returns the number of vertices in this path.
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * Returns the x coordinate of a vertex, relative to the path’s container.
+     */
+    public double getVertexX(int index) {
+        Objects.checkIndex(index, vertexCount);
+        return getX() + vertices[index * 2];
+    }
+
+    /**
+     * Returns the y coordinate of a vertex, relative to the path’s container.
+     */
+    public double getVertexY(int index) {
+        Objects.checkIndex(index, vertexCount);
+        return getY() + vertices[index * 2 + 1];
+    }
+
+    /**
+     * Moves one vertex, in coordinates relative to the path’s container. To avoid rebuilding the
+     * path for every vertex of an animated shape, this only records the change: call
+     * {@link #commitVertices()} once after moving a batch of vertices. Until then, the path is
+     * drawn, hit-tested and measured as it was at the last commit, and keeps its position.
+     */
+    public void setVertex(int index, double x, double y) {
+        Objects.checkIndex(index, vertexCount);
+        vertices[index * 2] = (float) (x - getX());
+        vertices[index * 2 + 1] = (float) (y - getY());
+    }
+
+    /**
+     * Rebuilds the path from its vertices after calls to {@link #setVertex(int, double, double)},
+     * updating its position and bounds once for the whole batch. The path’s storage is reused.
+     */
+    public void commitVertices() {
+        rebuildShape(getX(), getY());
+    }
+
+    /**
+     * Builds the shape from vertices stored relative to (originX, originY) in the container, then
+     * moves the path to its new bounds and makes the vertices relative to that position.
+     */
+    private void rebuildShape(double originX, double originY) {
+        if (shape == null) {
+            shape = new Path2D.Float(GeneralPath.WIND_EVEN_ODD, Math.max(vertexCount, 2));
+        } else {
+            shape.reset();
+        }
+
+        // Position at the integer corner of the bounds, as Path2D.getBounds() would
+        double left = 0, top = 0;
+        if (vertexCount == 0) {
             shape.moveTo(NaN, NaN);
         } else {
-            shape.moveTo(points.get(0).getX(), points.get(0).getY());
-            for (Point point : points.subList(1, points.size())) {
-                shape.lineTo(point.getX(), point.getY());
+            float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+            for (int i = 0; i < vertexCount * 2; i += 2) {
+                minX = Math.min(minX, vertices[i]);
+                minY = Math.min(minY, vertices[i + 1]);
+            }
+            left = Math.floor(originX + minX);
+            top = Math.floor(originY + minY);
+
+            for (int i = 0; i < vertexCount * 2; i += 2) {
+                vertices[i] = (float) (originX + vertices[i] - left);
+                vertices[i + 1] = (float) (originY + vertices[i + 1] - top);
+            }
+            shape.moveTo(vertices[0], vertices[1]);
+            for (int i = 2; i < vertexCount * 2; i += 2) {
+                shape.lineTo(vertices[i], vertices[i + 1]);
             }
-            if (closed) {
+            if (isClosed) {
                 shape.closePath();
             }
         }
-
-        Rectangle shapeBounds = shape.getBounds();
-        setPosition(shapeBounds.getX(), shapeBounds.getY());
-        shape.transform(AffineTransform.getTranslateInstance(-getX(), -getY()));
-
-        vertexCount = points.size();
+        setPosition(left, top);
 
         changed();
     }
 
+    private void ensureVertexCapacity(int vertexCount) {
+        if (vertices.length < vertexCount * 2) {
+            vertices = Arrays.copyOf(vertices, Math.max(vertexCount * 2, vertices.length * 2));
+        }
+    }
+
     @Override
     protected void drawInLocalCoordinates(Graphics2D gc) {
         Paint originalColor = gc.getPaint();
@@ -0,0 +1,270 @@
+package Graphics;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Many copies of one bitmap image, drawn as a single graphics object. Each copy (a “sprite”) has
+ * its own position and height; its width follows from the image’s aspect ratio.
+ * <p>
+ * This is for things like particles, where adding an {@link Image} per copy would mean thousands
+ * of objects to observe, hit-test and redraw. The sprites are stored as arrays of numbers, can be
+ * changed in place without allocating, and are all drawn in one pass. Sprite coordinates are in the
+ * batch’s local coordinate system, so the batch’s position is not necessarily the upper left of its
+ * bounding box.
+ * <p>
+ * The batch hit-tests against the bounding box of all its sprites, not the individual sprites, and
+ * does not take image transparency into account.
+ */
+public class SpriteBatch extends GraphicsObject {
+    /**
+     * Sprites taller than this on screen are drawn by scaling the image each time, rather than
+     * from a scaled copy made once.
+     */
+    private static final int MAX_CACHED_HEIGHT = 256;
+
+    private BufferedImage img;
+    private String path;
+
+    /**
+     * The upper left corner and height of each sprite. Only the first spriteCount entries are in
+     * use.
+     */
+    private double[] xs = new double[0], ys = new double[0], heights = new double[0];
+    private int spriteCount;
+    private boolean spritesChanged;
+    private Rectangle2D bounds = new Rectangle2D.Double();
+
+    /**
+     * Copies of the image scaled to each on-screen height, made as they are first drawn, for the
+     * on-screen scale in cachedScale.
+     */
+    private BufferedImage[] scaledImages = new BufferedImage[0];
+    private double cachedScale;
+
+    /**
+     * Creates an empty batch of the image at the given path, relative to the res/ directory.
+     */
+    public SpriteBatch(String path) {
+        setImagePath(path);
+    }
+
+    /**
+     * Changes the image drawn for every sprite.
+     *
+     * @param path path of image file to load, relative to the res/ directory.
+     */
+    public void setImagePath(String path) {
+        this.path = path;
+        img = Image.loadImage(path);
+        Arrays.fill(scaledImages, null);
+        spritesChanged = true;
+        changed();
+    }
+
+    /**
+     * Returns the number of sprites in this batch.
+     */
+    public int getSpriteCount() {
+        return spriteCount;
+    }
+
+    /**
+     * Changes the number of sprites, keeping the first ones and reusing the batch’s storage. New
+     * sprites have zero height (so are invisible) until set with
+     * {@link #setSprite(int, double, double, double)}.
+     */
+    public void setSpriteCount(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count must be nonnegative, but was " + count);
+        }
+        if (xs.length < count) {
+            int capacity = Math.max(count, xs.length * 2);
+            xs = Arrays.copyOf(xs, capacity);
+            ys = Arrays.copyOf(ys, capacity);
+            heights = Arrays.copyOf(heights, capacity);
+        }
+        for (int i = spriteCount; i < count; i++) {
+            xs[i] = 0;
+            ys[i] = 0;
+            heights[i] = 0;
+        }
+        spriteCount = count;
+        spritesChanged = true;
+    }
+
+    /**
+     * Places one sprite with its upper left corner at (x, y) and the given height. Like
+     * {@link Path#setVertex(int, double, double)}, this only records the change: call
+     * {@link #commitSprites()} once after changing a batch of sprites. Uncommitted changes are
+     * also committed automatically before the batch is drawn, hit-tested or measured.
+     */
+    public void setSprite(int index, double x, double y, double height) {
+        Objects.checkIndex(index, spriteCount);
+        xs[index] = x;
+        ys[index] = y;
+        heights[index] = height;
+        spritesChanged = true;
+    }
+
+    public double getSpriteX(int index) {
+        Objects.checkIndex(index, spriteCount);
+        return xs[index];
+    }
+
+    public double getSpriteY(int index) {
+        Objects.checkIndex(index, spriteCount);
+        return ys[index];
+    }
+
+    public double getSpriteHeight(int index) {
+        Objects.checkIndex(index, spriteCount);
+        return heights[index];
+    }
+
+    /**
+     * Returns the width a sprite of the given height has, given the image’s aspect ratio.
+     */
+    public double getSpriteWidth(double height) {
+        return img == null ? 0 : height * img.getWidth() / img.getHeight();
+    }
+
+    /**
+     * Updates the batch’s bounds after calls to {@link #setSprite(int, double, double, double)}
+     * or {@link #setSpriteCount(int)}, and redraws it once for the whole batch of changes.
+     */
+    public void commitSprites() {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < spriteCount; i++) {
+            minX = Math.min(minX, xs[i]);
+            minY = Math.min(minY, ys[i]);
+            maxX = Math.max(maxX, xs[i] + getSpriteWidth(heights[i]));
+            maxY = Math.max(maxY, ys[i] + heights[i]);
+        }
+        if (spriteCount == 0) {
+            bounds = new Rectangle2D.Double();
+        } else {
+            bounds = new Rectangle2D.Double(minX, minY, maxX - minX, maxY - minY);
+        }
+        spritesChanged = false;
+
+        changed();
+    }
+
+    private void commitIfChanged() {
+        if (spritesChanged) {
+            commitSprites();
+        }
+    }
+
+    @Override
+    protected void drawInLocalCoordinates(Graphics2D gc) {
+        commitIfChanged();
+        if (img == null || spriteCount == 0) {
+            return;
+        }
+
+        AffineTransform oldTransform = gc.getTransform();
+        double scale = oldTransform.getScaleX();
+        boolean onlyScaledAndMoved =
+            (oldTransform.getType() & ~(AffineTransform.TYPE_TRANSLATION | AffineTransform.TYPE_UNIFORM_SCALE)) == 0
+                && scale > 0;
+        if (!onlyScaledAndMoved) {
+            // Rotated or flipped: let Java2D transform each sprite
+            for (int i = 0; i < spriteCount; i++) {
+                gc.drawImage(
+                    img,
+                    (int) Math.round(xs[i]),
+                    (int) Math.round(ys[i]),
+                    (int) Math.round(getSpriteWidth(heights[i])),
+                    (int) Math.round(heights[i]),
+                    null);
+            }
+            return;
+        }
+
+        // Draw in device pixels, so each sprite is a plain pixel-aligned copy of a scaled image
+        if (scale != cachedScale) {
+            Arrays.fill(scaledImages, null);
+            cachedScale = scale;
+        }
+        double offsetX = oldTransform.getTranslateX(), offsetY = oldTransform.getTranslateY();
+        gc.setTransform(new AffineTransform());
+        for (int i = 0; i < spriteCount; i++) {
+            int x = (int) Math.round(offsetX + xs[i] * scale);
+            int y = (int) Math.round(offsetY + ys[i] * scale);
+            int height = (int) Math.round(heights[i] * scale);
+            if (height <= 0) {
+                continue;
+            }
+            if (height <= MAX_CACHED_HEIGHT) {
+                gc.drawImage(getScaledImage(height), x, y, null);
+            } else {
+                gc.drawImage(img, x, y, (int) Math.round(getSpriteWidth(height)), height, null);
+            }
+        }
+        gc.setTransform(oldTransform);
+    }
+
+    private BufferedImage getScaledImage(int height) {
+        if (scaledImages.length <= height) {
+            scaledImages = Arrays.copyOf(scaledImages, Math.max(height + 1, scaledImages.length * 2));
+        }
+        BufferedImage scaled = scaledImages[height];
+        if (scaled == null) {
+            scaled = scaleDown(img, Math.max(1, (int) Math.round(getSpriteWidth(height))), height);
+            scaledImages[height] = scaled;
+        }
+        return scaled;
+    }
+
+    /**
+     * Scales the image in steps of at most half, so that shrinking it a lot still averages over
+     * all of its pixels instead of picking a few of them.
+     */
+    private static BufferedImage scaleDown(BufferedImage image, int width, int height) {
+        BufferedImage result = image;
+        int currentWidth = image.getWidth(), currentHeight = image.getHeight();
+        do {
+            currentWidth = Math.max(width, currentWidth / 2);
+            currentHeight = Math.max(height, currentHeight / 2);
+            BufferedImage step = new BufferedImage(currentWidth, currentHeight, BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D gc = step.createGraphics();
+            gc.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            gc.drawImage(result, 0, 0, currentWidth, currentHeight, null);
+            gc.dispose();
+            result = step;
+        } while (currentWidth != width || currentHeight != height);
+        return result;
+    }
+
+    /**
+     * Tests whether the point (x, y) is inside the bounding box of the sprites.
+     */
+    @Override
+    public boolean testHitInLocalCoordinates(double x, double y) {
+        return getBounds().contains(x, y);
+    }
+
+    @Override
+    public Rectangle2D getBounds() {
+        commitIfChanged();
+        return bounds;
+    }
+
+    @Override
+    protected Object getEqualityAttributes() {
+        return path;
+    }
+
+    @Override
+    public String toString() {
+        return "SpriteBatch of " + spriteCount + " copies of " + path + " at position (" + getX() + ", " + getY() + ")";
+    }
+}
@@ -0,0 +1,187 @@
+package Graphics;
+
+import java.awt.Color;
+import java.awt.Paint;
+import java.util.function.DoubleConsumer;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * A change that plays out smoothly over a fixed amount of time, such as moving an object or
+ * fading its color. Start a tween with {@link CanvasWindow#play(Tween)}; the canvas advances it
+ * on each animation frame by the time actually elapsed, so it runs at the same speed however
+ * fast the computer or the user’s mouse is.
+ * <p>
+ * A tween reads its starting values (e.g. where the object is) when it first runs, not when it is
+ * created, so tweens can be chained with {@link #then(Tween)} to continue from where the previous
+ * one left off.
+ */
+public class Tween {
+    /**
+     * Progresses at a constant rate.
+     */
+    public static final DoubleUnaryOperator LINEAR = t -> t;
+
+    /**
+     * Starts slowly, speeds up, and slows down again at the end.
+     */
+    public static final DoubleUnaryOperator EASE_IN_OUT = t -> t * t * (3 - 2 * t);
+
+    private final double duration;
+    private final Supplier<DoubleConsumer> start;
+    private DoubleConsumer step;
+    private DoubleUnaryOperator easing = EASE_IN_OUT;
+    private Runnable onFinish;
+    private Tween next;
+
+    private double elapsed;
+    private boolean finished, cancelled;
+
+    /**
+     * Creates a tween that calls the given function on each frame with its progress, from 0 at
+     * the start to 1 at the end (adjusted by the {@link #easing(DoubleUnaryOperator) easing}).
+     */
+    public Tween(double seconds, DoubleConsumer step) {
+        this(seconds, () -> step);
+    }
+
+    private Tween(double seconds, Supplier<DoubleConsumer> start) {
+        if (!(seconds >= 0)) {
+            throw new IllegalArgumentException("seconds must be nonnegative, but was " + seconds);
+        }
+        this.duration = seconds;
+        this.start = start;
+    }
+
+    /**
+     * Moves the given object from wherever it is when the tween starts to (x, y).
+     */
+    public static Tween move(GraphicsObject target, double x, double y, double seconds) {
+        return new Tween(seconds, () -> {
+            double x0 = target.getX(), y0 = target.getY();
+            return t -> target.setPosition(x0 + (x - x0) * t, y0 + (y - y0) * t);
+        });
+    }
+
+    /**
+     * Fades the given shape’s fill from its color when the tween starts to the given color. If
+     * the shape is filled with something other than a plain color, it changes to the new color
+     * immediately.
+     */
+    public static Tween fillColor(Fillable target, Color color, double seconds) {
+        return new Tween(seconds, () -> {
+            Color from = asColor(target.getFillColor(), color);
+            return t -> target.setFillColor(interpolate(from, color, t));
+        });
+    }
+
+    /**
+     * Fades the given shape’s stroke from its color when the tween starts to the given color.
+     */
+    public static Tween strokeColor(Strokable target, Color color, double seconds) {
+        return new Tween(seconds, () -> {
+            Color from = asColor(target.getStrokeColor(), color);
+            return t -> target.setStrokeColor(interpolate(from, color, t));
+        });
+    }
+
+    private static Color asColor(Paint paint, Color fallback) {
+        return (paint instanceof Color) ? (Color) paint : fallback;
+    }
+
+    /**
+     * Returns the color the given fraction of the way from one color to another, including alpha.
+     */
+    public static Color interpolate(Color from, Color to, double t) {
+        return new Color(
+            interpolate(from.getRed(), to.getRed(), t),
+            interpolate(from.getGreen(), to.getGreen(), t),
+            interpolate(from.getBlue(), to.getBlue(), t),
+            interpolate(from.getAlpha(), to.getAlpha(), t));
+    }
+
+    private static int interpolate(int from, int to, double t) {
+        return (int) Math.round(from + (to - from) * Math.max(0, Math.min(1, t)));
+    }
+
+    /**
+     * Changes how progress is mapped over time. The default is {@link #EASE_IN_OUT}.
+     *
+     * @return this tween, for chaining
+     */
+    public Tween easing(DoubleUnaryOperator easing) {
+        this.easing = easing;
+        return this;
+    }
+
+    /**
+     * Runs the given action when this tween reaches its end (but not if it is cancelled).
+     *
+     * @return this tween, for chaining
+     */
+    public Tween onFinish(Runnable action) {
+        this.onFinish = action;
+        return this;
+    }
+
+    /**
+     * Plays the given tween after this one and any others already chained after it.
+     *
+     * @return this tween, so that playing or cancelling it covers the whole chain
+     */
+    public Tween then(Tween next) {
+        Tween last = this;
+        while (last.next != null) {
+            last = last.next;
+        }
+        last.next = next;
+        return this;
+    }
+
+    /**
+     * Stops this tween and everything chained after it, leaving the target wherever it is.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Returns true until this tween and everything chained after it have finished or been
+     * cancelled.
+     */
+    public boolean isRunning() {
+        if (cancelled) {
+            return false;
+        }
+        return !finished || (next != null && next.isRunning());
+    }
+
+    /**
+     * Moves this tween forward by dt seconds, and returns whether it is still running.
+     */
+    boolean advance(double dt) {
+        if (cancelled) {
+            return false;
+        }
+        if (finished) {
+            return next != null && next.advance(dt);
+        }
+
+        if (step == null) {
+            step = start.get();
+        }
+        double overshoot = elapsed + dt - duration;
+        elapsed = Math.min(duration, elapsed + dt);
+        step.accept(easing.applyAsDouble(duration > 0 ? elapsed / duration : 1));
+        if (elapsed < duration) {
+            return true;
+        }
+
+        finished = true;
+        if (onFinish != null) {
+            onFinish.run();
+        }
+        // Give the time left over from this frame to the next tween, so chains keep their pace
+        return next != null && next.advance(Math.max(0, overshoot));
+    }
+}
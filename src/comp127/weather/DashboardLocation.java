@@ -0,0 +1,75 @@
+package comp127.weather;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A named place shown as one row of the {@link WeatherDashboard}.
+ */
+public class DashboardLocation {
+    private final String name;
+    private final double latitude, longitude;
+
+    public DashboardLocation(String name, double latitude, double longitude) {
+        this.name = name;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * Reads locations from a resource with one “name, latitude, longitude” per line. Blank lines
+     * and lines starting with # are skipped.
+     */
+    public static List<DashboardLocation> load(String resourceName) throws IOException {
+        InputStream in = DashboardLocation.class.getResourceAsStream(resourceName);
+        if (in == null) {
+            throw new IOException("No resource named " + resourceName);
+        }
+        List<DashboardLocation> locations = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                // The name may itself contain commas, so split from the right
+                int lonComma = line.lastIndexOf(',');
+                int latComma = line.lastIndexOf(',', lonComma - 1);
+                try {
+                    locations.add(new DashboardLocation(
+                        line.substring(0, latComma).strip(),
+                        Double.parseDouble(line.substring(latComma + 1, lonComma).strip()),
+                        Double.parseDouble(line.substring(lonComma + 1).strip())));
+                } catch (RuntimeException e) {
+                    throw new IOException(resourceName + " line " + lineNumber + ": expected name, latitude, longitude", e);
+                }
+            }
+        }
+        return locations;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + latitude + ", " + longitude + ")";
+    }
+}
@@ -0,0 +1,346 @@
+package comp127.weather;
+
+import comp127.weather.api.OpenWeatherProvider;
+import comp127.weather.api.RequestScheduler.Priority;
+import comp127.weather.api.WeatherData;
+import comp127.weather.widgets.*;
+import Graphics.CanvasWindow;
+import Graphics.FontStyle;
+import Graphics.GraphicsGroup;
+import Graphics.GraphicsText;
+import Graphics.Rectangle;
+import Graphics.events.Key;
+
+import javax.swing.Timer;
+import java.awt.Color;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleFunction;
+
+/**
+ * A wall display showing the same set of widgets for many locations at once, one location per row.
+ * Scroll with the arrow keys, page up / page down, home / end, or by dragging.
+ *
+ * The grid is virtualised: only enough rows to fill the window (plus one) ever exist, and rows are
+ * recycled as they scroll out of view. So memory and drawing cost depend on the window size, not on
+ * how many locations there are. Weather for every location is fetched at startup and refreshed
+ * periodically, and each response only touches the row showing that location, if any. If a refresh
+ * fails, rows keep showing the data they have, labelled with its age.
+ */
+public class WeatherDashboard {
+    private static final String LOCATIONS_FILE = "/dashboard-locations.csv";
+
+    private static final double
+        LABEL_WIDTH = 160,
+        SCROLL_SPEED = 12;  // fraction of the remaining distance to cover per second, roughly
+
+    private static final Duration
+        REFRESH_INTERVAL = Duration.ofMinutes(10),
+        SHOW_AGE_AFTER = Duration.ofMinutes(25),  // i.e. a couple of refreshes have failed
+        MAX_STALE = Duration.ofHours(6);
+
+    private static final Color
+        BACKGROUND_COLOR = new Color(153, 204, 255),
+        ALTERNATE_ROW_COLOR = new Color(173, 214, 255);
+
+    private final CanvasWindow canvas;
+    private final List<DashboardLocation> locations;
+    private final List<OpenWeatherProvider> providers = new ArrayList<>();
+    private final WeatherViewModel[] latestData;
+    private final double cellSize;
+
+    private final List<Row> rows = new ArrayList<>();
+    private double scrollY, targetScrollY;
+    private final double maxScrollY;
+
+    /**
+     * Opens a dashboard window.
+     *
+     * @param widgetTypes One constructor per column, taking the widget size.
+     * @param cellSize The width and height of each widget.
+     * @param visibleRows The number of rows that fit in the window.
+     */
+    public WeatherDashboard(
+            List<DashboardLocation> locations,
+            List<DoubleFunction<WeatherWidget>> widgetTypes,
+            double cellSize,
+            int visibleRows) {
+        this.locations = List.copyOf(locations);
+        this.cellSize = cellSize;
+        latestData = new WeatherViewModel[locations.size()];
+
+        double height = cellSize * visibleRows;
+        canvas = new CanvasWindow(
+            "Weather Dashboard",
+            (int) Math.round(LABEL_WIDTH + cellSize * widgetTypes.size()),
+            (int) Math.round(height));
+        canvas.setBackground(BACKGROUND_COLOR);
+
+        maxScrollY = Math.max(0, cellSize * locations.size() - height);
+
+        // One extra row, for the one partly scrolled into view at the bottom
+        int rowCount = Math.min(locations.size(), visibleRows + 1);
+        for (int i = 0; i < rowCount; i++) {
+            Row row = new Row(widgetTypes);
+            rows.add(row);
+            canvas.add(row.group);
+        }
+        layOutRows();
+
+        canvas.onKeyDown(event -> {
+            Key key = event.getKey();
+            if (key == Key.DOWN_ARROW) {
+                scrollTo(targetScrollY + cellSize);
+            } else if (key == Key.UP_ARROW) {
+                scrollTo(targetScrollY - cellSize);
+            } else if (key == Key.PAGE_DOWN) {
+                scrollTo(targetScrollY + height - cellSize);
+            } else if (key == Key.PAGE_UP) {
+                scrollTo(targetScrollY - height + cellSize);
+            } else if (key == Key.HOME) {
+                scrollTo(0);
+            } else if (key == Key.END) {
+                scrollTo(maxScrollY);
+            }
+        });
+
+        canvas.onDrag(event -> {
+            scrollTo(scrollY - event.getDelta().getY());
+            scrollY = targetScrollY;
+            layOutRows();
+        });
+
+        // Only active while scrolling or catching up on rows, so an idle kiosk doesn’t redraw
+        canvas.animateWhenActive(dt -> {
+            if (scrollY != targetScrollY) {
+                double step = (targetScrollY - scrollY) * Math.min(1, dt * SCROLL_SPEED);
+                scrollY = Math.abs(targetScrollY - scrollY) < 0.5 ? targetScrollY : scrollY + step;
+                layOutRows();
+            }
+            return updateOneStaleRow() || scrollY != targetScrollY;
+        });
+
+        for (DashboardLocation location : locations) {
+            providers.add(new OpenWeatherProvider(location.getLatitude(), location.getLongitude()));
+        }
+        fetchAll();
+        new Timer((int) REFRESH_INTERVAL.toMillis(), e -> {
+            fetchAll();
+            for (Row row : rows) {
+                row.updateStatus();
+            }
+        }).start();
+    }
+
+    private void scrollTo(double y) {
+        targetScrollY = Math.max(0, Math.min(maxScrollY, y));
+    }
+
+    /**
+     * Positions the recycled rows for the current scroll offset. Row i of the pool always shows a
+     * location whose index is i modulo the pool size, so a row keeps its location (and its widgets
+     * are not updated) for as long as it stays in view.
+     */
+    private void layOutRows() {
+        int first = (int) (scrollY / cellSize);
+        for (int index = first; index < first + rows.size(); index++) {
+            Row row = rows.get(index % rows.size());
+            if (index >= locations.size()) {
+                row.group.setPosition(0, -2 * cellSize);  // nothing to show; park it off screen
+                continue;
+            }
+            if (row.locationIndex != index) {
+                row.bind(index);
+            }
+            row.group.setPosition(0, index * cellSize - scrollY);
+        }
+    }
+
+    /**
+     * Updating a row’s widgets takes several milliseconds, so a jump of a whole page would drop
+     * frames if every newly visible row updated at once. Instead, rows wait their turn and at
+     * most one is updated per frame.
+     *
+     * @return true if there may be more rows waiting
+     */
+    private boolean updateOneStaleRow() {
+        for (Row row : rows) {
+            if (row.stale) {
+                row.show(latestData[row.locationIndex]);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Requests weather for every location. The rows on screen are fetched first; the rest are
+     * background requests, so they don’t hold up anything the user asks for. Any recent data
+     * already fetched for a location is shown right away.
+     */
+    private void fetchAll() {
+        for (int i = 0; i < locations.size(); i++) {
+            int index = i;
+            WeatherData cached = providers.get(i).getWeather(
+                isOnScreen(index) ? Priority.INTERACTIVE : Priority.BACKGROUND,
+                MAX_STALE,
+                data -> receive(index, new WeatherViewModel(data)));
+            if (cached != null && (latestData[index] == null || latestData[index].getData() != cached)) {
+                receive(index, new WeatherViewModel(cached));
+            }
+        }
+    }
+
+    private boolean isOnScreen(int index) {
+        return rows.get(index % rows.size()).locationIndex == index;
+    }
+
+    /**
+     * Called on the UI thread as each location’s weather arrives. Only the row showing that
+     * location changes; the canvas batches the redraw with any others in the same frame.
+     */
+    private void receive(int index, WeatherViewModel data) {
+        latestData[index] = data;
+        Row row = rows.get(index % rows.size());
+        if (row.locationIndex == index) {
+            row.show(data);
+        }
+    }
+
+    /**
+     * The widgets for one location, reused for different locations as the dashboard scrolls.
+     */
+    private class Row {
+        private final GraphicsGroup group = new GraphicsGroup();
+        private final GraphicsGroup widgetLayer = new GraphicsGroup();
+        private final Rectangle background;
+        private final GraphicsText nameLabel, statusLabel;
+        private final List<WeatherWidget> widgets = new ArrayList<>();
+
+        private int locationIndex = -1;
+        private WeatherViewModel widgetData;
+        private boolean widgetsVisible;
+        private boolean stale;
+
+        Row(List<DoubleFunction<WeatherWidget>> widgetTypes) {
+            background = new Rectangle(0, 0, LABEL_WIDTH + cellSize * widgetTypes.size(), cellSize);
+            background.setStroked(false);
+            group.add(background);
+
+            nameLabel = new GraphicsText();
+            nameLabel.setFont(FontStyle.BOLD, 14);
+            group.add(nameLabel, 10, cellSize * 0.5);
+
+            statusLabel = new GraphicsText();
+            statusLabel.setFont(FontStyle.PLAIN, 12);
+            statusLabel.setFillColor(Color.GRAY);
+            group.add(statusLabel, 10, cellSize * 0.5 + 20);
+
+            double x = LABEL_WIDTH;
+            for (DoubleFunction<WeatherWidget> widgetType : widgetTypes) {
+                WeatherWidget widget = widgetType.apply(cellSize);
+                widgets.add(widget);
+                widgetLayer.add(widget.getGraphics(), x, 0);
+                x += cellSize;
+            }
+        }
+
+        /**
+         * Switches this row to a different location. If the widgets would need updating, that is
+         * left for {@link #updateOneStaleRow()}, and the widgets are hidden until then.
+         */
+        void bind(int index) {
+            locationIndex = index;
+            nameLabel.setText(locations.get(index).getName());
+            background.setFillColor(index % 2 == 0 ? ALTERNATE_ROW_COLOR : BACKGROUND_COLOR);
+
+            WeatherViewModel data = latestData[index];
+            if (data == null || data == widgetData) {
+                show(data);
+            } else {
+                statusLabel.setText("");
+                setWidgetsVisible(false);
+                stale = true;
+            }
+        }
+
+        /**
+         * Shows the given data, or a placeholder if it hasn’t arrived yet. The widgets are hidden
+         * rather than left showing another location’s weather, and are only updated if the data
+         * differs from what they already show.
+         */
+        void show(WeatherViewModel data) {
+            statusLabel.setText(statusText(data));
+            if (data != null && data != widgetData) {
+                for (WeatherWidget widget : widgets) {
+                    widget.update(data);
+                }
+                widgetData = data;
+            }
+            setWidgetsVisible(data != null);
+            stale = false;
+        }
+
+        /**
+         * Brings the status label up to date as the shown data ages.
+         */
+        void updateStatus() {
+            if (!stale && locationIndex >= 0) {
+                statusLabel.setText(statusText(latestData[locationIndex]));
+            }
+        }
+
+        private String statusText(WeatherViewModel data) {
+            if (data == null) {
+                return "Loading…";
+            }
+            Duration age = data.getData().getAge();
+            if (age.compareTo(SHOW_AGE_AFTER) < 0) {
+                return "";
+            }
+            return age.toHours() > 0
+                ? "As of " + age.toHours() + " h ago"
+                : "As of " + age.toMinutes() + " min ago";
+        }
+
+        private void setWidgetsVisible(boolean visible) {
+            if (visible == widgetsVisible) {
+                return;
+            }
+            if (visible) {
+                group.add(widgetLayer);
+            } else {
+                group.remove(widgetLayer);
+            }
+            widgetsVisible = visible;
+        }
+    }
+
+    /**
+     * Opens a dashboard of the locations listed in res/dashboard-locations.csv.
+     */
+    public static void open() {
+        List<DashboardLocation> locations;
+        try {
+            locations = DashboardLocation.load(LOCATIONS_FILE);
+        } catch (IOException e) {
+            System.err.println("Unable to load " + LOCATIONS_FILE + ": " + e);
+            return;
+        }
+        new WeatherDashboard(
+            locations,
+            List.of(
+                TemperatureWidget::new,
+                TemperatureChartWidget::new,
+                WindWidget::new,
+                HumidityWidget::new),
+            150,
+            6);
+    }
+
+    public static void main(String[] args) {
+        open();
+    }
+}
@@ -75,11 +75,13 @@ public class WeatherProgram {
     private void updateWeather() {
         new OpenWeatherProvider(FORECAST_LAT, FORECAST_LON)
             .fetchWeather((weatherData) -> {
+                // Format the data once for both sizes of every widget
+                WeatherViewModel model = new WeatherViewModel(weatherData);
                 for (WeatherWidget widget : miniWidgets) {
-                    widget.update(weatherData);
+                    widget.update(model);
                 }
                 for (WeatherWidget widget : largeWidgets) {
-                    widget.update(weatherData);
+                    widget.update(model);
                 }
                 canvas.draw();
             });
@@ -89,6 +91,7 @@ public class WeatherProgram {
         return List.of(
             new TemperatureWidget(size),
             new ForecastWidget(size),  
+            new TemperatureChartWidget(size),
             new SunriseSunsetWidget(size),
             new WindWidget(size),
             new HumidityWidget(size));
@@ -106,7 +109,14 @@ public class WeatherProgram {
         selectionHighlight.setPosition(largeWidgetSize, miniWidgetSize * index);      
     }
 
+    /**
+     * Pass --dashboard to show many locations at once instead; see {@link WeatherDashboard}.
+     */
     public static void main(String[] args) {
-        new WeatherProgram(600);
+        if (args.length > 0 && args[0].equals("--dashboard")) {
+            WeatherDashboard.open();
+        } else {
+            new WeatherProgram(600);
+        }
     }
 }
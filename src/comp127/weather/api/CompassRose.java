@@ -0,0 +1,125 @@
+package comp127.weather.api;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Names compass directions, such as "NNW", at 8, 16 or 32 points.
+ *
+ * Each rose holds a table of its point names, built once, so looking up a direction is a bit of
+ * arithmetic and an array read, with no chain of comparisons and no new Strings. A direction
+ * exactly on the boundary between two points goes to the counterclockwise one, matching
+ * OpenWeatherMap's Tools.convertDegree2Direction.
+ *
+ * Roses for other languages replace the cardinal letters, e.g. "NO" for northeast in German.
+ * The "by" points of the 32-point rose keep the English "b".
+ */
+public final class CompassRose {
+    private static final String[] THIRTY_TWO_POINT_NAMES = {
+        "N", "NbE", "NNE", "NEbN", "NE", "NEbE", "ENE", "EbN",
+        "E", "EbS", "ESE", "SEbE", "SE", "SEbS", "SSE", "SbE",
+        "S", "SbW", "SSW", "SWbS", "SW", "SWbW", "WSW", "WbS",
+        "W", "WbN", "WNW", "NWbW", "NW", "NWbN", "NNW", "NbW"
+    };
+
+    /**
+     * The letters for north, east, south and west in each language that has its own.
+     */
+    private static final Map<String, String> CARDINAL_LETTERS = Map.of(
+        "de", "NOSW",
+        "es", "NESO",
+        "fr", "NESO",
+        "it", "NESO",
+        "nl", "NOZW",
+        "pt", "NLSO");
+
+    /**
+     * The 16-point English rose used by {@link Conditions#getWindDirectionAsString()}.
+     */
+    public static final CompassRose SIXTEEN_POINT = new CompassRose(16, "NESW");
+
+    private static final Map<String, CompassRose> roses = new ConcurrentHashMap<>();
+
+    private final String[] names;
+    private final double sectorSize;
+
+    private CompassRose(int points, String cardinalLetters) {
+        names = new String[points];
+        int step = THIRTY_TWO_POINT_NAMES.length / points;
+        for (int i = 0; i < points; i++) {
+            names[i] = translate(THIRTY_TWO_POINT_NAMES[i * step], cardinalLetters).intern();
+        }
+        sectorSize = 360.0 / points;
+    }
+
+    /**
+     * Returns the English rose with the given number of points.
+     *
+     * @param points 8, 16 or 32
+     */
+    public static CompassRose withPoints(int points) {
+        return withPoints(points, Locale.ENGLISH);
+    }
+
+    /**
+     * Returns the rose with the given number of points whose names use the cardinal letters
+     * of the given locale's language. Languages without their own letters get English names.
+     *
+     * @param points 8, 16 or 32
+     */
+    public static CompassRose withPoints(int points, Locale locale) {
+        if (points != 8 && points != 16 && points != 32) {
+            throw new IllegalArgumentException("A compass rose has 8, 16 or 32 points, not " + points);
+        }
+        String letters = CARDINAL_LETTERS.getOrDefault(locale.getLanguage(), "NESW");
+        if (points == 16 && letters.equals("NESW")) {
+            return SIXTEEN_POINT;
+        }
+        return roses.computeIfAbsent(points + letters, key -> new CompassRose(points, letters));
+    }
+
+    /**
+     * The number of points on this rose.
+     */
+    public int getPoints() {
+        return names.length;
+    }
+
+    /**
+     * Returns the point closest to a direction, counting clockwise from 0 for north, or -1 if the
+     * direction is not between 0 and 360 degrees.
+     */
+    public int indexOf(double degrees) {
+        if (!(degrees >= 0 && degrees <= 360)) {
+            return -1;
+        }
+        int index = (int) Math.ceil((degrees - sectorSize / 2) / sectorSize);
+        return index == names.length ? 0 : index;
+    }
+
+    /**
+     * Returns the name of a point, where 0 is north and points count clockwise.
+     */
+    public String nameAt(int index) {
+        return names[index];
+    }
+
+    /**
+     * Returns the name of the point closest to a direction, or null if the direction is not
+     * between 0 and 360 degrees.
+     */
+    public String nameOf(double degrees) {
+        int index = indexOf(degrees);
+        return index < 0 ? null : names[index];
+    }
+
+    private static String translate(String name, String cardinalLetters) {
+        StringBuilder translated = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            int cardinal = "NESW".indexOf(name.charAt(i));
+            translated.append(cardinal < 0 ? name.charAt(i) : cardinalLetters.charAt(cardinal));
+        }
+        return translated.toString();
+    }
+}
@@ -1,7 +1,5 @@
 package comp127.weather.api;
 
-import net.aksingh.owmjapis.Tools;
-
 /**
  * Weather information shared by both current conditions and future forecasts.
  *
@@ -9,8 +7,6 @@ import net.aksingh.owmjapis.Tools;
  * (a nullable object type), and not double (the non-nullable primitive type).
  */
 public abstract class Conditions {
-    private static final Tools weatherUtils = new Tools();
-
     protected Double cloudCoverage;
     protected Double temperature;
     protected Double pressure;
@@ -70,8 +66,8 @@ public abstract class Conditions {
      * A textual description of the compass direction of the wind, such as "S" or "NNW".
      */
     public String getWindDirectionAsString() {
-        if (windDirectionInDegrees != null && windDirectionInDegrees >= 0 && windDirectionInDegrees <= 360) {
-            return weatherUtils.convertDegree2Direction(windDirectionInDegrees.floatValue());
+        if (windDirectionInDegrees != null) {
+            return CompassRose.SIXTEEN_POINT.nameOf(windDirectionInDegrees);
         } else {
             return null;
         }
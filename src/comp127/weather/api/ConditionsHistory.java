@@ -0,0 +1,344 @@
+package comp127.weather.api;
+
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * The most recent current conditions observed at one location, for showing trends such as
+ * “pressure falling over the last 6 hours.” Holds a fixed number of samples; once full, each new
+ * sample replaces the oldest.
+ * <p>
+ * Samples are kept in primitive arrays, one per field, so adding one allocates nothing. Every
+ * {@value #BLOCK_SIZE} samples also share a running summary (count, min, max, and the sums that a
+ * linear regression needs), so a query over a long window combines a few block summaries and only
+ * looks at individual samples at its two ends.
+ * <p>
+ * Values are stored as floats, which is how OpenWeatherMap parses them in the first place. Missing
+ * values are skipped by queries.
+ * <p>
+ * All methods are synchronized, so samples can arrive on request threads while the UI queries.
+ */
+public class ConditionsHistory {
+
+    /**
+     * The observed quantities that can be queried.
+     */
+    public enum Field {
+        TEMPERATURE, PRESSURE, HUMIDITY, WIND_SPEED
+    }
+
+    static final int BLOCK_SIZE = 16;
+
+    private static final double MILLIS_PER_HOUR = 3_600_000.0;
+
+    private final int capacity;
+    private final long[] times;
+    private final Series[] series = new Series[Field.values().length];
+
+    /**
+     * Start times of the blocks in the blocks ring, parallel to each Series’ block summaries.
+     * There is one more block than fits in the samples ring, because the oldest block can be
+     * partly overwritten while the newest is partly filled.
+     */
+    private final long[] blockStartTimes;
+
+    private long count;  // total ever added; sample n is in slot n % capacity
+
+    /**
+     * @param capacity The number of samples to keep. Rounded up to a multiple of {@value #BLOCK_SIZE}.
+     */
+    public ConditionsHistory(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1, but was " + capacity);
+        }
+        this.capacity = (capacity + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_SIZE;
+        int blocks = this.capacity / BLOCK_SIZE + 1;
+        times = new long[this.capacity];
+        blockStartTimes = new long[blocks];
+        for (int i = 0; i < series.length; i++) {
+            series[i] = new Series(this.capacity, blocks);
+        }
+    }
+
+    /**
+     * Adds the given conditions, observed at the given time. Samples must arrive in order; one
+     * no later than the newest sample already here is ignored.
+     *
+     * @return true if the sample was added
+     */
+    public boolean add(Date time, CurrentConditions conditions) {
+        return add(
+            time.getTime(),
+            valueOf(conditions.getTemperature()),
+            valueOf(conditions.getPressure()),
+            valueOf(conditions.getHumidity()),
+            valueOf(conditions.getWindSpeed()));
+    }
+
+    private static double valueOf(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+
+    /**
+     * Adds a sample, with NaN for any missing values. Allocates nothing.
+     */
+    synchronized boolean add(long timeMillis, double temperature, double pressure, double humidity, double windSpeed) {
+        if (count > 0 && timeMillis <= getNewestTimeMillis()) {
+            return false;
+        }
+
+        int slot = (int) (count % capacity);
+        int block = blockOf(count);
+        boolean newBlock = count % BLOCK_SIZE == 0;
+        if (newBlock) {
+            blockStartTimes[block] = timeMillis;
+        }
+        double hoursIntoBlock = (timeMillis - blockStartTimes[block]) / MILLIS_PER_HOUR;
+
+        times[slot] = timeMillis;
+        series[Field.TEMPERATURE.ordinal()].add(slot, block, newBlock, hoursIntoBlock, temperature);
+        series[Field.PRESSURE.ordinal()].add(slot, block, newBlock, hoursIntoBlock, pressure);
+        series[Field.HUMIDITY.ordinal()].add(slot, block, newBlock, hoursIntoBlock, humidity);
+        series[Field.WIND_SPEED.ordinal()].add(slot, block, newBlock, hoursIntoBlock, windSpeed);
+        count++;
+        return true;
+    }
+
+    /**
+     * Removes all samples, so that this history can be reused for another location.
+     */
+    public synchronized void clear() {
+        count = 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * The number of samples currently held.
+     */
+    public synchronized int size() {
+        return (int) Math.min(count, capacity);
+    }
+
+    /**
+     * The time of the most recent sample, or null if there are none.
+     */
+    public synchronized Date getNewestTime() {
+        return count == 0 ? null : new Date(getNewestTimeMillis());
+    }
+
+    private long getNewestTimeMillis() {
+        return times[(int) ((count - 1) % capacity)];
+    }
+
+    /**
+     * Summarizes the given field over the given length of time leading up to the most recent
+     * sample.
+     */
+    public synchronized Summary summarize(Field field, Duration window) {
+        if (count == 0) {
+            return Summary.EMPTY;
+        }
+        long newest = getNewestTimeMillis();
+        return summarize(field, newest - window.toMillis(), newest);
+    }
+
+    /**
+     * Summarizes the given field over samples from the given start time to the given end time,
+     * inclusive.
+     */
+    public synchronized Summary summarize(Field field, Date start, Date end) {
+        return summarize(field, start.getTime(), end.getTime());
+    }
+
+    private Summary summarize(Field field, long startMillis, long endMillis) {
+        long first = firstAtOrAfter(startMillis);
+        long last = (endMillis == Long.MAX_VALUE ? count : firstAtOrAfter(endMillis + 1)) - 1;
+        if (first > last) {
+            return Summary.EMPTY;
+        }
+
+        // Regression sums are relative to the first sample, to keep them small and accurate
+        long origin = times[(int) (first % capacity)];
+        Accumulator total = new Accumulator();
+        Series values = series[field.ordinal()];
+        long n = first;
+        while (n <= last) {
+            if (n % BLOCK_SIZE == 0 && n + BLOCK_SIZE - 1 <= last) {
+                int block = blockOf(n);
+                values.addBlockTo(total, block, (blockStartTimes[block] - origin) / MILLIS_PER_HOUR);
+                n += BLOCK_SIZE;
+            } else {
+                int slot = (int) (n % capacity);
+                total.add((times[slot] - origin) / MILLIS_PER_HOUR, values.values[slot]);
+                n++;
+            }
+        }
+        return total.toSummary();
+    }
+
+    /**
+     * Returns the sequence number of the oldest sample held at or after the given time, or count
+     * if there is none. Samples are in time order, so this is a binary search.
+     */
+    private long firstAtOrAfter(long timeMillis) {
+        long low = Math.max(0, count - capacity), high = count;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (times[(int) (mid % capacity)] < timeMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int blockOf(long sequence) {
+        return (int) ((sequence / BLOCK_SIZE) % blockStartTimes.length);
+    }
+
+    /**
+     * One field’s samples and block summaries. Times in the summaries are in hours since the
+     * block’s first sample.
+     */
+    private static class Series {
+        private final float[] values;
+        private final int[] blockCounts;
+        private final double[] blockSumT, blockSumT2, blockSumV, blockSumTV, blockMin, blockMax;
+
+        Series(int capacity, int blocks) {
+            values = new float[capacity];
+            blockCounts = new int[blocks];
+            blockSumT = new double[blocks];
+            blockSumT2 = new double[blocks];
+            blockSumV = new double[blocks];
+            blockSumTV = new double[blocks];
+            blockMin = new double[blocks];
+            blockMax = new double[blocks];
+        }
+
+        void add(int slot, int block, boolean newBlock, double t, double value) {
+            values[slot] = (float) value;
+            if (newBlock) {
+                blockCounts[block] = 0;
+                blockSumT[block] = blockSumT2[block] = blockSumV[block] = blockSumTV[block] = 0;
+                blockMin[block] = Double.POSITIVE_INFINITY;
+                blockMax[block] = Double.NEGATIVE_INFINITY;
+            }
+            if (Double.isNaN(value)) {
+                return;
+            }
+            value = (float) value;  // summarize exactly what is stored
+            blockCounts[block]++;
+            blockSumT[block] += t;
+            blockSumT2[block] += t * t;
+            blockSumV[block] += value;
+            blockSumTV[block] += t * value;
+            blockMin[block] = Math.min(blockMin[block], value);
+            blockMax[block] = Math.max(blockMax[block], value);
+        }
+
+        /**
+         * Adds a block’s summary, shifting its times by the given number of hours.
+         */
+        void addBlockTo(Accumulator total, int block, double shift) {
+            int n = blockCounts[block];
+            if (n == 0) {
+                return;
+            }
+            // Σ(t+s) = Σt + ns;  Σ(t+s)² = Σt² + 2sΣt + ns²;  Σ(t+s)v = Σtv + sΣv
+            total.count += n;
+            total.sumT += blockSumT[block] + n * shift;
+            total.sumT2 += blockSumT2[block] + 2 * shift * blockSumT[block] + n * shift * shift;
+            total.sumV += blockSumV[block];
+            total.sumTV += blockSumTV[block] + shift * blockSumV[block];
+            total.min = Math.min(total.min, blockMin[block]);
+            total.max = Math.max(total.max, blockMax[block]);
+        }
+    }
+
+    private static class Accumulator {
+        private int count;
+        private double sumT, sumT2, sumV, sumTV;
+        private double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+
+        void add(double t, double value) {
+            if (Double.isNaN(value)) {
+                return;
+            }
+            count++;
+            sumT += t;
+            sumT2 += t * t;
+            sumV += value;
+            sumTV += t * value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        Summary toSummary() {
+            if (count == 0) {
+                return Summary.EMPTY;
+            }
+            double spread = count * sumT2 - sumT * sumT;
+            double slope = (count > 1 && spread > 0)
+                ? (count * sumTV - sumT * sumV) / spread
+                : Double.NaN;
+            return new Summary(count, min, max, sumV / count, slope);
+        }
+    }
+
+    /**
+     * Statistics for one field over a window of time. Values are NaN if there were no samples.
+     */
+    public static class Summary {
+        static final Summary EMPTY = new Summary(0, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+
+        private final int count;
+        private final double min, max, average, slope;
+
+        private Summary(int count, double min, double max, double average, double slope) {
+            this.count = count;
+            this.min = min;
+            this.max = max;
+            this.average = average;
+            this.slope = slope;
+        }
+
+        /**
+         * The number of samples in the window that had a value for the field.
+         */
+        public int getCount() {
+            return count;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public double getAverage() {
+            return average;
+        }
+
+        /**
+         * The trend of the field, in its units per hour, from a least-squares line through the
+         * samples. NaN if there are fewer than two samples.
+         */
+        public double getSlopePerHour() {
+            return slope;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "%d samples, min %.2f, max %.2f, average %.2f, slope %+.3f/h",
+                count, min, max, average, slope);
+        }
+    }
+}
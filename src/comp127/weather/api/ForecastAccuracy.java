@@ -0,0 +1,477 @@
+package comp127.weather.api;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.stream.Collectors.toConcurrentMap;
+
+/**
+ * Measures how accurate temperature forecasts turn out to be, by comparing each forecast with the
+ * temperature actually observed at the time it was for, and summarizing the errors by location
+ * and by lead time (how far ahead the forecast was made).
+ * <p>
+ * The analysis is incremental. Each forecast waits until an observation arrives at or after the
+ * time it is for; it is then compared with whichever observation is nearer, that one or the one
+ * before, as long as that is within the match tolerance. So a new observation only touches the
+ * forecasts it settles and the aggregates for their location and lead times, rather than redoing
+ * the whole analysis.
+ * <p>
+ * Each location’s data must be added in the order it was fetched: an observation, then the
+ * forecasts fetched with it. Different locations can be added from different threads at once.
+ * {@link #load(WeatherLog, Date, Date)} analyzes a stored history this way, one location per
+ * thread, and the cross-location summaries are parallel reductions over the per-location ones.
+ */
+public class ForecastAccuracy {
+
+    /**
+     * OpenWeather forecasts go 5 days ahead.
+     */
+    public static final double MAX_LEAD_HOURS = 120;
+
+    private static final double MILLIS_PER_HOUR = 3_600_000.0;
+
+    private final double bucketHours;
+    private final long toleranceMillis;
+    private final int bucketCount;
+
+    private final ConcurrentMap<String, LocationAccuracy> locations = new ConcurrentHashMap<>();
+
+    /**
+     * Groups errors into 3-hour lead times, and matches forecasts with observations up to 30
+     * minutes from the forecast time.
+     */
+    public ForecastAccuracy() {
+        this(3, Duration.ofMinutes(30));
+    }
+
+    /**
+     * @param bucketHours    The width of each lead time group, in hours.
+     * @param matchTolerance How far an observation can be from the time a forecast was for and still
+     *                       count as its outcome. Forecasts with no observation this close are
+     *                       counted as unmatched.
+     */
+    public ForecastAccuracy(double bucketHours, Duration matchTolerance) {
+        if (!(bucketHours > 0)) {
+            throw new IllegalArgumentException("bucketHours must be positive, but was " + bucketHours);
+        }
+        this.bucketHours = bucketHours;
+        this.toleranceMillis = matchTolerance.toMillis();
+        bucketCount = (int) (MAX_LEAD_HOURS / bucketHours) + 1;
+    }
+
+    // –––––– Adding data ––––––
+
+    /**
+     * Adds the current conditions and forecasts in newly fetched data.
+     */
+    public void record(String location, WeatherData data) {
+        long issueTime = data.getFetchTime().getTime();
+        LocationAccuracy accuracy = locationFor(location);
+        synchronized (accuracy) {
+            Double observed = data.getCurrentConditions().getTemperature();
+            if (observed != null) {
+                accuracy.addObservation(issueTime, observed.floatValue());
+            }
+            for (ForecastConditions forecast : data.getForecasts()) {
+                if (forecast.getPredictionTime() != null && forecast.getTemperature() != null) {
+                    accuracy.addForecast(
+                        issueTime,
+                        (float) ((forecast.getPredictionTime().getTime() - issueTime) / MILLIS_PER_HOUR),
+                        forecast.getTemperature().floatValue(),
+                        valueOf(forecast.getMinTemperature()),
+                        valueOf(forecast.getMaxTemperature()));
+                }
+            }
+        }
+    }
+
+    private static float valueOf(Double value) {
+        return value != null ? value.floatValue() : Float.NaN;
+    }
+
+    /**
+     * Adds an observed temperature, settling any waiting forecasts for times up to it. Ignored if
+     * not later than the location’s previous observation, or if NaN.
+     */
+    public void addObservation(String location, long timeMillis, float temperature) {
+        LocationAccuracy accuracy = locationFor(location);
+        synchronized (accuracy) {
+            accuracy.addObservation(timeMillis, temperature);
+        }
+    }
+
+    /**
+     * Adds a temperature forecast, which waits for an observation at or after issue time plus lead
+     * time. Ignored if the lead time is negative or more than {@link #MAX_LEAD_HOURS}, or the
+     * temperature is NaN.
+     *
+     * @param min The low end of the forecast’s range, or NaN if it has none.
+     * @param max The high end of the forecast’s range, or NaN if it has none.
+     */
+    public void addForecast(String location, long issueMillis, float leadHours, float temperature, float min, float max) {
+        LocationAccuracy accuracy = locationFor(location);
+        synchronized (accuracy) {
+            accuracy.addForecast(issueMillis, leadHours, temperature, min, max);
+        }
+    }
+
+    /**
+     * Analyzes the observations and forecasts stored in the given log between the given times,
+     * in parallel by location. Call this before adding newer data for the same locations.
+     */
+    public void load(WeatherLog log, Date start, Date end) throws IOException {
+        try {
+            log.getObservations().getLocations().parallelStream().forEach(location -> {
+                try {
+                    TimeSeriesLog.Slice observations = log.scanObservations(
+                        location, start, end, WeatherLog.ObservationColumn.TEMPERATURE);
+                    TimeSeriesLog.Slice forecasts = log.scanForecasts(
+                        location, start, end,
+                        WeatherLog.ForecastColumn.LEAD_HOURS,
+                        WeatherLog.ForecastColumn.TEMPERATURE,
+                        WeatherLog.ForecastColumn.MIN_TEMPERATURE,
+                        WeatherLog.ForecastColumn.MAX_TEMPERATURE);
+                    LocationAccuracy accuracy = locationFor(location);
+                    synchronized (accuracy) {
+                        accuracy.addAll(observations, forecasts);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private LocationAccuracy locationFor(String location) {
+        return locations.computeIfAbsent(location, key -> new LocationAccuracy());
+    }
+
+    // –––––– Results ––––––
+
+    public double getBucketHours() {
+        return bucketHours;
+    }
+
+    /**
+     * The number of lead time groups. Group i holds forecasts made i * bucketHours to
+     * (i + 1) * bucketHours ahead.
+     */
+    public int getBucketCount() {
+        return bucketCount;
+    }
+
+    /**
+     * Error statistics for all locations, by lead time group.
+     */
+    public List<ErrorStats> getStatsByLead() {
+        Totals total = locations.values().parallelStream()
+            .map(LocationAccuracy::snapshot)
+            .collect(() -> new Totals(bucketCount), Totals::add, Totals::add);
+        return total.toStatsByBucket();
+    }
+
+    /**
+     * Error statistics for one location, by lead time group, or null if there is no data for it.
+     */
+    public List<ErrorStats> getStatsByLead(String location) {
+        LocationAccuracy accuracy = locations.get(location);
+        return accuracy == null ? null : accuracy.snapshot().toStatsByBucket();
+    }
+
+    /**
+     * Error statistics for each location, over all lead times.
+     */
+    public Map<String, ErrorStats> getStatsByLocation() {
+        return Collections.unmodifiableMap(
+            locations.entrySet().parallelStream()
+                .collect(toConcurrentMap(
+                    Map.Entry::getKey,
+                    entry -> entry.getValue().snapshot().toOverallStats())));
+    }
+
+    /**
+     * The number of forecasts with no observation close enough to the time they were for.
+     */
+    public long getUnmatchedCount() {
+        return locations.values().parallelStream()
+            .mapToLong(LocationAccuracy::getUnmatched)
+            .sum();
+    }
+
+    /**
+     * The number of forecasts still waiting for an observation.
+     */
+    public long getPendingCount() {
+        return locations.values().parallelStream()
+            .mapToLong(LocationAccuracy::getPending)
+            .sum();
+    }
+
+    // –––––– Per location ––––––
+
+    /**
+     * One location’s waiting forecasts and error totals. Guarded by its own lock.
+     */
+    private class LocationAccuracy {
+        private long lastObservationTime = Long.MIN_VALUE;
+        private float lastObservation;
+
+        // Waiting forecasts: a binary min-heap on target time, as parallel arrays
+        private int pending;
+        private long[] targets = new long[64];
+        private int[] buckets = new int[64];
+        private float[] forecasts = new float[64], mins = new float[64], maxes = new float[64];
+
+        private final Totals totals = new Totals(bucketCount);
+        private long unmatched;
+
+        /**
+         * Merges columns of observations and forecasts in time order.
+         */
+        void addAll(TimeSeriesLog.Slice observations, TimeSeriesLog.Slice forecastSlice) {
+            long[] observationTimes = observations.getTimes();
+            float[] observed = observations.getColumn(WeatherLog.ObservationColumn.TEMPERATURE.ordinal());
+            long[] issueTimes = forecastSlice.getTimes();
+            float[] leads = forecastSlice.getColumn(WeatherLog.ForecastColumn.LEAD_HOURS.ordinal());
+            float[] temperatures = forecastSlice.getColumn(WeatherLog.ForecastColumn.TEMPERATURE.ordinal());
+            float[] minTemperatures = forecastSlice.getColumn(WeatherLog.ForecastColumn.MIN_TEMPERATURE.ordinal());
+            float[] maxTemperatures = forecastSlice.getColumn(WeatherLog.ForecastColumn.MAX_TEMPERATURE.ordinal());
+
+            int o = 0, f = 0;
+            while (o < observationTimes.length || f < issueTimes.length) {
+                // Observations first on ties: forecasts are fetched along with the conditions
+                if (f == issueTimes.length || (o < observationTimes.length && observationTimes[o] <= issueTimes[f])) {
+                    addObservation(observationTimes[o], observed[o]);
+                    o++;
+                } else {
+                    addForecast(issueTimes[f], leads[f], temperatures[f], minTemperatures[f], maxTemperatures[f]);
+                    f++;
+                }
+            }
+        }
+
+        void addObservation(long time, float temperature) {
+            if (time <= lastObservationTime || Float.isNaN(temperature)) {
+                return;
+            }
+            while (pending > 0 && targets[0] <= time) {
+                long target = targets[0];
+                long sincePrevious = target - lastObservationTime, untilThis = time - target;
+                boolean usePrevious = lastObservationTime != Long.MIN_VALUE && sincePrevious <= untilThis;
+                long distance = usePrevious ? sincePrevious : untilThis;
+                if (distance <= toleranceMillis) {
+                    totals.add(buckets[0], forecasts[0], mins[0], maxes[0],
+                        usePrevious ? lastObservation : temperature);
+                } else {
+                    unmatched++;
+                }
+                removeFirst();
+            }
+            lastObservationTime = time;
+            lastObservation = temperature;
+        }
+
+        void addForecast(long issueTime, float leadHours, float temperature, float min, float max) {
+            if (!(leadHours >= 0 && leadHours <= MAX_LEAD_HOURS) || Float.isNaN(temperature)) {
+                return;
+            }
+            if (pending == targets.length) {
+                int capacity = pending * 2;
+                targets = Arrays.copyOf(targets, capacity);
+                buckets = Arrays.copyOf(buckets, capacity);
+                forecasts = Arrays.copyOf(forecasts, capacity);
+                mins = Arrays.copyOf(mins, capacity);
+                maxes = Arrays.copyOf(maxes, capacity);
+            }
+            int i = pending++;
+            set(i, issueTime + Math.round(leadHours * MILLIS_PER_HOUR),
+                (int) (leadHours / bucketHours), temperature, min, max);
+            while (i > 0 && targets[(i - 1) / 2] > targets[i]) {
+                swap(i, (i - 1) / 2);
+                i = (i - 1) / 2;
+            }
+        }
+
+        private void removeFirst() {
+            pending--;
+            swap(0, pending);
+            int i = 0;
+            while (true) {
+                int smallest = i, left = 2 * i + 1, right = left + 1;
+                if (left < pending && targets[left] < targets[smallest]) {
+                    smallest = left;
+                }
+                if (right < pending && targets[right] < targets[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void set(int i, long target, int bucket, float forecast, float min, float max) {
+            targets[i] = target;
+            buckets[i] = bucket;
+            forecasts[i] = forecast;
+            mins[i] = min;
+            maxes[i] = max;
+        }
+
+        private void swap(int i, int j) {
+            long target = targets[i];
+            int bucket = buckets[i];
+            float forecast = forecasts[i], min = mins[i], max = maxes[i];
+            set(i, targets[j], buckets[j], forecasts[j], mins[j], maxes[j]);
+            set(j, target, bucket, forecast, min, max);
+        }
+
+        synchronized Totals snapshot() {
+            return totals.copy();
+        }
+
+        synchronized long getUnmatched() {
+            return unmatched;
+        }
+
+        synchronized long getPending() {
+            return pending;
+        }
+    }
+
+    /**
+     * Error sums by lead time group, as parallel arrays.
+     */
+    private static class Totals {
+        private final long[] counts, inRangeCounts, rangeCounts;
+        private final double[] sumError, sumAbsError, sumSquaredError;
+
+        Totals(int buckets) {
+            counts = new long[buckets];
+            inRangeCounts = new long[buckets];
+            rangeCounts = new long[buckets];
+            sumError = new double[buckets];
+            sumAbsError = new double[buckets];
+            sumSquaredError = new double[buckets];
+        }
+
+        void add(int bucket, float forecast, float min, float max, float observed) {
+            double error = forecast - observed;
+            counts[bucket]++;
+            sumError[bucket] += error;
+            sumAbsError[bucket] += Math.abs(error);
+            sumSquaredError[bucket] += error * error;
+            if (!Float.isNaN(min) && !Float.isNaN(max)) {
+                rangeCounts[bucket]++;
+                if (observed >= min && observed <= max) {
+                    inRangeCounts[bucket]++;
+                }
+            }
+        }
+
+        void add(Totals other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+                inRangeCounts[i] += other.inRangeCounts[i];
+                rangeCounts[i] += other.rangeCounts[i];
+                sumError[i] += other.sumError[i];
+                sumAbsError[i] += other.sumAbsError[i];
+                sumSquaredError[i] += other.sumSquaredError[i];
+            }
+        }
+
+        Totals copy() {
+            Totals copy = new Totals(counts.length);
+            copy.add(this);
+            return copy;
+        }
+
+        List<ErrorStats> toStatsByBucket() {
+            List<ErrorStats> result = new ArrayList<>(counts.length);
+            for (int i = 0; i < counts.length; i++) {
+                result.add(new ErrorStats(
+                    counts[i], sumError[i], sumAbsError[i], sumSquaredError[i], inRangeCounts[i], rangeCounts[i]));
+            }
+            return Collections.unmodifiableList(result);
+        }
+
+        ErrorStats toOverallStats() {
+            return new ErrorStats(
+                Arrays.stream(counts).sum(),
+                Arrays.stream(sumError).sum(),
+                Arrays.stream(sumAbsError).sum(),
+                Arrays.stream(sumSquaredError).sum(),
+                Arrays.stream(inRangeCounts).sum(),
+                Arrays.stream(rangeCounts).sum());
+        }
+    }
+
+    /**
+     * How far off a group of forecasts were. Error is forecast minus observed temperature, so
+     * positive bias means forecasts ran warm. Averages are NaN if there were no forecasts.
+     */
+    public static class ErrorStats {
+        private final long count, inRangeCount, rangeCount;
+        private final double sumError, sumAbsError, sumSquaredError;
+
+        private ErrorStats(long count, double sumError, double sumAbsError, double sumSquaredError,
+                           long inRangeCount, long rangeCount) {
+            this.count = count;
+            this.sumError = sumError;
+            this.sumAbsError = sumAbsError;
+            this.sumSquaredError = sumSquaredError;
+            this.inRangeCount = inRangeCount;
+            this.rangeCount = rangeCount;
+        }
+
+        /**
+         * The number of forecasts matched with an observation.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * The mean error.
+         */
+        public double getBias() {
+            return sumError / count;
+        }
+
+        public double getMeanAbsoluteError() {
+            return sumAbsError / count;
+        }
+
+        public double getRootMeanSquareError() {
+            return Math.sqrt(sumSquaredError / count);
+        }
+
+        /**
+         * The fraction of forecasts with a min–max range whose observed temperature fell within
+         * it.
+         */
+        public double getRangeCoverage() {
+            return (double) inRangeCount / rangeCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "%d forecasts, bias %+.2f, MAE %.2f, RMSE %.2f, %.0f%% within range",
+                count, getBias(), getMeanAbsoluteError(), getRootMeanSquareError(), 100 * getRangeCoverage());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package comp127.weather.api;
+
+import org.json.CDLWriter;
+import org.json.JSONException;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Date;
+
+/**
+ * Writes forecasts to comma-separated text, one row per forecast, without holding the whole
+ * table in memory. Rows can be appended from many WeatherData results over time, so a long
+ * forecast history can be streamed straight to a file for analysis in a spreadsheet.
+ *
+ * Missing values are written as empty cells. Times are ISO-8601 instants in UTC.
+ */
+public class ForecastCsvWriter implements Closeable, Flushable {
+    private static final String[] COLUMNS = {
+        "location", "predictionTime", "temperature", "minTemperature", "maxTemperature",
+        "humidity", "pressure", "cloudCoverage", "windSpeed", "windDirectionInDegrees",
+        "weatherDescription", "weatherIcon"
+    };
+
+    private final CDLWriter out;
+
+    /**
+     * Creates a writer and writes the header row. Closing this writer closes the given Writer.
+     */
+    public ForecastCsvWriter(Writer writer) throws IOException {
+        out = new CDLWriter(writer);
+        try {
+            for (String column : COLUMNS) {
+                out.value(column);
+            }
+            out.endRow();
+        } catch (JSONException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Writes one row for each forecast in the given data, labeled with its city name.
+     */
+    public void write(WeatherData data) throws IOException {
+        for (ForecastConditions forecast : data.getForecasts()) {
+            write(data.getCityName(), forecast);
+        }
+    }
+
+    /**
+     * Writes one row for a single forecast.
+     */
+    public void write(String location, ForecastConditions forecast) throws IOException {
+        try {
+            Date predictionTime = forecast.getPredictionTime();
+            out.value(location)
+                .value(predictionTime == null ? null : predictionTime.toInstant().toString())
+                .value(forecast.getTemperature())
+                .value(forecast.getMinTemperature())
+                .value(forecast.getMaxTemperature())
+                .value(forecast.getHumidity())
+                .value(forecast.getPressure())
+                .value(forecast.getCloudCoverage())
+                .value(forecast.getWindSpeed())
+                .value(forecast.getWindDirectionInDegrees())
+                .value(forecast.getWeatherDescription())
+                .value(forecast.weatherIconFile)
+                .endRow();
+        } catch (JSONException e) {
+            throw new IOException(e);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
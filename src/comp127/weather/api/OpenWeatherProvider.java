@@ -1,13 +1,25 @@
 package comp127.weather.api;
 
+import net.aksingh.owmjapis.CurrentWeather;
+import net.aksingh.owmjapis.HourlyForecast;
 import net.aksingh.owmjapis.OpenWeatherMap;
 
 import javax.swing.SwingUtilities;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import comp127.weather.api.ConditionsHistory.Field;
+import comp127.weather.api.ConditionsHistory.Summary;
+import comp127.weather.api.RequestScheduler.Priority;
 
 /**
  * Fetches weather data from the OpenWeather API.
@@ -24,15 +36,46 @@ public class OpenWeatherProvider {
 
     private static final String PROPERTIES_FILE = "/weather-display.properties";
 
-    private static String getApiKey() {
-        Properties props = new Properties();
-        try {
-            props.load(OpenWeatherProvider.class.getResourceAsStream(PROPERTIES_FILE));
-        } catch (Exception e) {
-            System.err.print("Unable to load " + PROPERTIES_FILE + ": ");
-            e.printStackTrace();
+    private static Properties properties;
+    private static String apiKey;
+
+    private static synchronized Properties getProperties() {
+        if (properties == null) {
+            properties = new Properties();
+            try (InputStream in = OpenWeatherProvider.class.getResourceAsStream(PROPERTIES_FILE)) {
+                // Without the file, settings can still come from system properties
+                if (in != null) {
+                    properties.load(in);
+                }
+            } catch (Exception e) {
+                System.err.print("Unable to load " + PROPERTIES_FILE + ": ");
+                e.printStackTrace();
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Looks up a setting, letting a JVM system property of the same name (e.g.
+     * {@code -Dapi.base_url=http://localhost:8080/}) override the properties file.
+     */
+    private static String getProperty(String name, String defaultValue) {
+        return System.getProperty(name, getProperties().getProperty(name, defaultValue));
+    }
+
+    private static int getIntProperty(String name, int defaultValue) {
+        return Integer.parseInt(getProperty(name, String.valueOf(defaultValue)));
+    }
+
+    private static synchronized String getApiKey() {
+        if (apiKey == null) {
+            apiKey = loadApiKey();
         }
-        String result = props.getProperty("api.key");
+        return apiKey;
+    }
+
+    private static String loadApiKey() {
+        String result = getProperty("api.key", null);
         if (result == null || result.isBlank()) {
             System.err.println();
             System.err.println("ERROR: No api.key in res" + PROPERTIES_FILE);
@@ -50,8 +93,109 @@ public class OpenWeatherProvider {
     private final Double lat, lng;
 
     private final OpenWeatherMap openWeather;
+    private final RateLimiter rateLimiter;
+
+    /**
+     * OpenWeather limits how often each API key may call it, so all providers using the same key
+     * share one limiter. A free key allows 60 calls per minute; set api.calls_per_minute and
+     * api.burst in the properties file to match a different plan.
+     */
+    private static final Map<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+
+    private static final int
+        DEFAULT_CALLS_PER_MINUTE = 60,
+        DEFAULT_BURST = 10,
+        CALLS_PER_FETCH = 2;  // current conditions and forecast
+
+    /**
+     * The most locations whose last good data and history are kept. Past this, the least recently
+     * used location’s are dropped.
+     */
+    private static final int MAX_CACHED_LOCATIONS = 1024;
+
+    /**
+     * The most recent data successfully fetched for each request key, from any provider. Guarded
+     * by itself.
+     */
+    private static final Map<String, WeatherData> lastGoodData =
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, WeatherData> eldest) {
+                return size() > MAX_CACHED_LOCATIONS;
+            }
+        };
+
+    /**
+     * OpenWeather updates its data about every 10 minutes, so cached data younger than this is
+     * served without fetching again. api.fresh_seconds in the properties file overrides this.
+     */
+    private static final int DEFAULT_FRESH_SECONDS = 300;
+
+    private static final Duration freshFor = Duration.ofSeconds(getIntProperty("api.fresh_seconds", DEFAULT_FRESH_SECONDS));
+
+    /**
+     * Current conditions from every successful fetch. At the dashboard’s 10-minute refresh, 256
+     * samples cover about 42 hours, and each location’s history takes about 10 KB.
+     */
+    private static final WeatherHistory history = new WeatherHistory(256, MAX_CACHED_LOCATIONS);
+
+    /**
+     * If history.log_directory is set, every successful fetch is also appended to a log there, to
+     * keep months of observations and forecasts. Null if not set or the log can’t be opened.
+     */
+    private static final WeatherLog weatherLog = openWeatherLog();
+
+    private static WeatherLog openWeatherLog() {
+        String directory = getProperty("history.log_directory", null);
+        if (directory == null || directory.isBlank()) {
+            return null;
+        }
+        try {
+            return new WeatherLog(Path.of(directory.strip()));
+        } catch (IOException e) {
+            System.err.print("Unable to open weather log in " + directory + ": ");
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private static RateLimiter rateLimiterFor(String apiKey) {
+        return rateLimiters.computeIfAbsent(apiKey, key ->
+            new RateLimiter(
+                Double.parseDouble(getProperty("api.calls_per_minute", String.valueOf(DEFAULT_CALLS_PER_MINUTE))) / 60,
+                getIntProperty("api.burst", DEFAULT_BURST)));
+    }
+
+    /**
+     * Requests from all providers share these threads, so that a dashboard fetching many locations
+     * has a few requests in flight at once without opening a connection per location.
+     * api.request_threads in the properties file overrides this.
+     */
+    private static final int DEFAULT_REQUEST_THREADS = 4;
+
+    /**
+     * More than enough for one request per location on a large dashboard. Past this, the oldest
+     * background requests are dropped. api.max_waiting_requests overrides this.
+     */
+    private static final int DEFAULT_MAX_WAITING_REQUESTS = 256;
+
+    private static final RequestScheduler requestQueue =
+        new RequestScheduler(
+            getIntProperty("api.request_threads", DEFAULT_REQUEST_THREADS),
+            getIntProperty("api.max_waiting_requests", DEFAULT_MAX_WAITING_REQUESTS));
 
-    private static final ExecutorService requestQueue = Executors.newSingleThreadExecutor();
+    /**
+     * Creates the underlying client. api.base_url in the properties file points it at a server
+     * other than OpenWeather’s, such as a local stub for testing.
+     */
+    private static OpenWeatherMap createClient() {
+        OpenWeatherMap client = new OpenWeatherMap(getApiKey());
+        String baseUrl = getProperty("api.base_url", null);
+        if (baseUrl != null && !baseUrl.isBlank()) {
+            client.setBaseUrl(baseUrl.strip());
+        }
+        return client;
+    }
 
     /**
      * Creates a provider that will return weather for a given city.
@@ -60,7 +204,8 @@ public class OpenWeatherProvider {
      * @param countryCode The two-letter country code for the country you want to get weather from
      */
     public OpenWeatherProvider(String cityName, String countryCode) {
-        openWeather = new OpenWeatherMap(getApiKey());
+        openWeather = createClient();
+        rateLimiter = rateLimiterFor(getApiKey());
         this.cityName = cityName;
         this.countryCode = countryCode;
         this.lat = this.lng = null;
@@ -71,7 +216,8 @@ public class OpenWeatherProvider {
      * Creates a provider that will return weather for an arbitrary location.
      */
     public OpenWeatherProvider(double latitude, double longitude) {
-        openWeather = new OpenWeatherMap(getApiKey());
+        openWeather = createClient();
+        rateLimiter = rateLimiterFor(getApiKey());
         this.lat = latitude;
         this.lng = longitude;
         this.cityName = this.countryCode = null;
@@ -93,34 +239,168 @@ public class OpenWeatherProvider {
     }
 
     /**
-     * Fetches up-to-date weather data from the server. Runs completionCallback if the
-     * request succeeds.
+     * Fetches up-to-date weather data from the server. Runs completionCallback on the UI thread if
+     * the request succeeds. This is an interactive request: it goes ahead of any background ones.
      */
     public void fetchWeather(Consumer<WeatherData> completionCallback) {
-        requestQueue.submit(() -> {
-            try {
+        fetchWeather(Priority.INTERACTIVE, completionCallback);
+    }
+
+    /**
+     * Fetches up-to-date weather data from the server. Runs completionCallback on the UI thread if
+     * the request succeeds.
+     * <p>
+     * If a request for the same location and units is already waiting, from this provider or
+     * another, this one joins it rather than fetching the data twice. If too many requests are
+     * waiting, the oldest background ones are dropped and never call back. If the API key’s rate
+     * limit has been reached, the request waits its turn.
+     *
+     * @param priority Use BACKGROUND for data nobody is looking at yet, such as prefetching
+     *                 off-screen locations, so that it doesn’t hold up INTERACTIVE requests.
+     */
+    public void fetchWeather(Priority priority, Consumer<WeatherData> completionCallback) {
+        submit(priority, completionCallback, false);
+    }
+
+    /**
+     * Like {@link #fetchWeather(Priority, Consumer)}, but only if the API key’s rate limit allows
+     * it right now. Otherwise this does nothing and returns false, so that a caller with data
+     * already on hand can keep using it instead of waiting.
+     */
+    public boolean tryFetchWeather(Priority priority, Consumer<WeatherData> completionCallback) {
+        if (!rateLimiter.tryAcquire(CALLS_PER_FETCH)) {
+            return false;
+        }
+        submit(priority, completionCallback, true);
+        return true;
+    }
+
+    /**
+     * Returns the most recent weather fetched for this location right away, and fetches fresh
+     * data in the background, passing it to freshDataCallback on the UI thread when it arrives.
+     * Callers can show the returned data immediately, however slow or unavailable the server is,
+     * and then update when (if) the fresh data arrives. Use {@link WeatherData#getAge()} to tell
+     * how old the returned data is.
+     * <p>
+     * If the returned data is still fresh (see api.fresh_seconds), nothing is fetched and
+     * freshDataCallback is not called.
+     *
+     * @param maxStale Cached data older than this is not returned.
+     * @return Data fetched earlier for this location and units by any provider, or null if there
+     *         is none no older than maxStale.
+     */
+    public WeatherData getWeather(Priority priority, Duration maxStale, Consumer<WeatherData> freshDataCallback) {
+        WeatherData cached = getCachedWeather(maxStale);
+        if (cached == null || cached.getAge().compareTo(freshFor) >= 0) {
+            fetchWeather(priority, freshDataCallback);
+        }
+        return cached;
+    }
+
+    /**
+     * Returns the most recent data fetched for this location and units by any provider, or null
+     * if there is none no older than maxStale. Does not fetch anything.
+     */
+    public WeatherData getCachedWeather(Duration maxStale) {
+        WeatherData cached;
+        synchronized (lastGoodData) {
+            cached = lastGoodData.get(getRequestKey());
+        }
+        if (cached == null || cached.getAge().compareTo(maxStale) > 0) {
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * Summarizes a field of the current conditions fetched for this location and units so far, by
+     * any provider, over the given length of time leading up to the newest, for showing trends.
+     * The summary is empty if nothing has been fetched yet.
+     */
+    public Summary summarizeHistory(Field field, Duration window) {
+        return history.summarize(getRequestKey(), field, window);
+    }
+
+    /**
+     * Summarizes a field of the current conditions fetched for this location and units so far, by
+     * any provider, from the given start time to the given end time, inclusive.
+     */
+    public Summary summarizeHistory(Field field, Date start, Date end) {
+        return history.summarize(getRequestKey(), field, start, end);
+    }
+
+    /**
+     * Returns the rate limiter shared by all providers using this provider’s API key.
+     */
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    private void submit(Priority priority, Consumer<WeatherData> completionCallback, boolean permitsHeld) {
+        String key = getRequestKey();
+        requestQueue.submit(
+            key,
+            priority,
+            rateLimiter,
+            CALLS_PER_FETCH,
+            permitsHeld,
+            () -> {
                 WeatherData result = new WeatherData(
                     fetch("current conditions",
                         openWeather::currentWeatherByCityName,
-                        openWeather::currentWeatherByCoordinates),
+                        openWeather::currentWeatherByCoordinates,
+                        CurrentWeather::isValid),
                     fetch("hourly forecast",
                         openWeather::hourlyForecastByCityName,
-                        openWeather::hourlyForecastByCoordinates));
+                        openWeather::hourlyForecastByCoordinates,
+                        HourlyForecast::isValid));
 
-                System.out.println("Got weather data: " + result);
+                // Requests can finish out of order; keep whichever data arrived last
+                synchronized (lastGoodData) {
+                    lastGoodData.merge(key, result, (old, fresh) ->
+                        fresh.getFetchTime().before(old.getFetchTime()) ? old : fresh);
+                }
+                history.record(key, result);
+                if (weatherLog != null) {
+                    try {
+                        weatherLog.record(key, result);
+                    } catch (IOException e) {
+                        System.err.println("Unable to log weather data: " + e);
+                    }
+                }
+                return result;
+            },
+            result -> SwingUtilities.invokeLater(() ->
+                completionCallback.accept(result)));
+    }
 
-                SwingUtilities.invokeLater(() ->
-                    completionCallback.accept(result));
-            } catch (WeatherException e) {
-                System.out.println("Unable to fetch weather: " + e);
-            }
-        });
+    /**
+     * Returns metrics for the request queue shared by all providers.
+     */
+    public static RequestScheduler.Stats getRequestStats() {
+        return requestQueue.getStats();
     }
 
+    /**
+     * Identifies the data this provider fetches, so that duplicate requests can be merged.
+     */
+    private String getRequestKey() {
+        String location = usingCityName()
+            ? cityName + ", " + countryCode
+            : lat + ", " + lng;
+        return location + " (" + openWeather.getUnits() + ")";
+    }
+
+    /**
+     * @param isValid Checks for a successful response. OpenWeatherMap reports connection errors by
+     *                returning an empty response rather than throwing, and that must not replace
+     *                good data.
+     */
     private <T> T fetch(
             String requestName,
             APIRequest<String, String, T> cityRequest,
-            APIRequest<Float, Float, T> coordinateRequest)
+            APIRequest<Float, Float, T> coordinateRequest,
+            Predicate<T> isValid)
         throws WeatherException {
 
         System.out.println("Updating " + requestName + " ...");
@@ -137,6 +417,9 @@ public class OpenWeatherProvider {
         if (result == null) {
             throw new WeatherException("Could not parse weather API response");
         }
+        if (!isValid.test(result)) {
+            throw new WeatherException("Weather API returned no " + requestName);
+        }
         System.out.println("Done.");
         return result;
     }
@@ -0,0 +1,156 @@
+package comp127.weather.api;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket: permits refill at a steady rate, up to a maximum burst, and each API call uses
+ * one. Several calls can go out at once after a quiet spell, but over time the calls never
+ * exceed the rate.
+ * <p>
+ * The whole bucket is one number, the time at which it will next be full, so acquiring a permit
+ * is a compare-and-set rather than a lock. Blocking callers reserve their permits in the order
+ * they arrive and then wait for their turn outside of any lock, so they are served first come,
+ * first served, and {@link #tryAcquire(int)} can’t take permits that someone is already waiting
+ * for.
+ */
+public class RateLimiter {
+
+    /**
+     * A source of time, so that tests can use a fake one.
+     */
+    interface Clock {
+        long nanoTime();
+
+        void sleep(long nanos) throws InterruptedException;
+    }
+
+    static final Clock SYSTEM_CLOCK = new Clock() {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public void sleep(long nanos) throws InterruptedException {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    };
+
+    private final Clock clock;
+    private final long nanosPerPermit;
+    private final long burstNanos;
+    private final int burst;
+
+    /**
+     * When the bucket will be full again, if nobody takes anything else. Anything in the past
+     * means it is full now.
+     */
+    private final AtomicLong fullAt;
+
+    /**
+     * @param permitsPerSecond The long-run rate.
+     * @param burst            The most permits that can be taken at once after a quiet spell.
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, SYSTEM_CLOCK);
+    }
+
+    RateLimiter(double permitsPerSecond, int burst, Clock clock) {
+        if (!(permitsPerSecond > 0)) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive, but was " + permitsPerSecond);
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("burst must be at least 1, but was " + burst);
+        }
+        this.clock = clock;
+        this.burst = burst;
+        nanosPerPermit = Math.max(1, Math.round(1e9 / permitsPerSecond));
+        burstNanos = nanosPerPermit * burst;
+        fullAt = new AtomicLong(clock.nanoTime());
+    }
+
+    /**
+     * Takes the given number of permits if they are available right now, without waiting.
+     *
+     * @return true if the permits were taken; false if taking them would exceed the rate, in
+     *         which case nothing changes.
+     */
+    public boolean tryAcquire(int permits) {
+        long cost = costOf(permits);
+        while (true) {
+            long now = clock.nanoTime();
+            long current = fullAt.get();
+            long updated = Math.max(current, now) + cost;
+            if (updated - now > burstNanos) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, updated)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Takes the given number of permits, waiting as long as necessary for them. Callers that
+     * arrive while others are waiting queue up behind them.
+     *
+     * @return The time spent waiting, in nanoseconds.
+     * @throws InterruptedException if interrupted while waiting. The permits stay taken.
+     */
+    public long acquire(int permits) throws InterruptedException {
+        long wait = reserve(permits);
+        if (wait > 0) {
+            clock.sleep(wait);
+        }
+        return wait;
+    }
+
+    /**
+     * Takes the given number of permits now, and returns how many nanoseconds the caller must
+     * wait before using them.
+     */
+    long reserve(int permits) {
+        long cost = costOf(permits);
+        while (true) {
+            long now = clock.nanoTime();
+            long current = fullAt.get();
+            long updated = Math.max(current, now) + cost;
+            if (fullAt.compareAndSet(current, updated)) {
+                return Math.max(0, updated - now - burstNanos);
+            }
+        }
+    }
+
+    /**
+     * Returns how many nanoseconds from now the given number of permits will be available to
+     * {@link #tryAcquire(int)}, or 0 if they are available already. Takes nothing.
+     */
+    long nanosUntilAvailable(int permits) {
+        long now = clock.nanoTime();
+        return Math.max(0, Math.max(fullAt.get(), now) + costOf(permits) - now - burstNanos);
+    }
+
+    /**
+     * Gives back permits taken but not used, e.g. because the request they were for turned out
+     * to be unnecessary.
+     */
+    public void release(int permits) {
+        fullAt.addAndGet(-costOf(permits));
+    }
+
+    /**
+     * The number of permits that could be taken right now without waiting.
+     */
+    public int getAvailablePermits() {
+        long debt = Math.max(0, fullAt.get() - clock.nanoTime());
+        return (int) Math.max(0, burst - (debt + nanosPerPermit - 1) / nanosPerPermit);
+    }
+
+    private long costOf(int permits) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("permits must be at least 1, but was " + permits);
+        }
+        return nanosPerPermit * permits;
+    }
+}
@@ -0,0 +1,389 @@
+package comp127.weather.api;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs weather requests on a fixed set of threads, most urgent first.
+ * <ul>
+ *   <li>{@link Priority#INTERACTIVE} requests (weather someone is looking at) always start before
+ *       {@link Priority#BACKGROUND} ones (prefetching, periodic refreshes), so a burst of
+ *       background work doesn’t delay what’s on screen.</li>
+ *   <li>A request for the same key (location and units) as one still waiting is merged into it:
+ *       one fetch, and every callback gets the result. Merging into a background request with an
+ *       interactive one promotes it.</li>
+ *   <li>At most {@code capacity} requests wait at once. When the queue is full, the oldest
+ *       background request is dropped to make room, or the oldest interactive one if there are
+ *       no background requests. Dropped requests never call their callbacks.</li>
+ *   <li>A request limited by a {@link RateLimiter} only starts once its permits have been taken.
+ *       Until then it stays in the queue, and idle threads wait for the limiter instead of
+ *       holding requests, so an interactive request submitted meanwhile still goes first.</li>
+ * </ul>
+ */
+public class RequestScheduler {
+
+    public enum Priority {
+        INTERACTIVE, BACKGROUND
+    }
+
+    /**
+     * The work to do for one request.
+     */
+    interface Fetch {
+        WeatherData fetch() throws WeatherException;
+    }
+
+    private final int capacity;
+    private final Map<Priority, ArrayDeque<Request>> queues = new EnumMap<>(Priority.class);
+    private final Map<String, Request> waitingByKey = new HashMap<>();
+
+    // Metrics, guarded by this
+    private int peakDepth;
+    private long merged, dropped, succeeded, failed;
+    private long rateLimited, rateLimitWaitNanos;
+    private final Map<Priority, WaitTimes> waitTimes = new EnumMap<>(Priority.class);
+
+    /**
+     * Starts a scheduler that runs the given number of requests at once.
+     *
+     * @param capacity The most requests that can wait to start.
+     */
+    RequestScheduler(int threads, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1, but was " + capacity);
+        }
+        this.capacity = capacity;
+        for (Priority priority : Priority.values()) {
+            queues.put(priority, new ArrayDeque<>());
+            waitTimes.put(priority, new WaitTimes());
+        }
+        for (int i = 0; i < threads; i++) {
+            // Daemons, so that requests still waiting don’t keep the app running once it closes
+            Thread thread = new Thread(this::runRequests, "weather request " + (i + 1));
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Queues a request, or merges it into a waiting one with the same key.
+     *
+     * @param key Identifies requests that would fetch the same data.
+     * @param callback Called on a request thread with the result, if the fetch succeeds.
+     * @return true if the request was queued, false if it joined one already waiting.
+     */
+    synchronized boolean submit(String key, Priority priority, Fetch fetch, Consumer<WeatherData> callback) {
+        return submit(key, priority, null, 0, false, fetch, callback);
+    }
+
+    /**
+     * Queues a request that uses the given number of permits from a rate limiter, or merges it
+     * into a waiting one with the same key. The request starts only once it has its permits.
+     *
+     * @param permitsHeld True if the caller already took the permits for this request. If they
+     *                    turn out not to be needed, because the request is merged or dropped,
+     *                    they are released.
+     * @return true if the request was queued, false if it joined one already waiting.
+     */
+    synchronized boolean submit(
+            String key, Priority priority, RateLimiter limiter, int permits, boolean permitsHeld,
+            Fetch fetch, Consumer<WeatherData> callback) {
+        Request waiting = waitingByKey.get(key);
+        if (waiting != null) {
+            waiting.callbacks.add(callback);
+            merged++;
+            if (permitsHeld) {
+                if (waiting.permitsHeld || waiting.limiter != limiter) {
+                    limiter.release(permits);
+                } else {
+                    waiting.permitsHeld = true;  // now it needn’t wait for the limiter
+                    notify();
+                }
+            }
+            if (priority.compareTo(waiting.priority) < 0) {
+                // Promoted requests keep their original submit time, so they go to the head
+                queues.get(waiting.priority).remove(waiting);
+                waiting.priority = priority;
+                queues.get(priority).addFirst(waiting);
+            }
+            return false;
+        }
+
+        if (waitingByKey.size() >= capacity) {
+            dropOldest();
+        }
+        Request request = new Request(key, priority, limiter, permits, permitsHeld, fetch, callback);
+        queues.get(priority).addLast(request);
+        waitingByKey.put(key, request);
+        peakDepth = Math.max(peakDepth, waitingByKey.size());
+        notify();
+        return true;
+    }
+
+    private void dropOldest() {
+        Request victim = queues.get(Priority.BACKGROUND).pollFirst();
+        if (victim == null) {
+            victim = queues.get(Priority.INTERACTIVE).pollFirst();
+        }
+        waitingByKey.remove(victim.key);
+        if (victim.permitsHeld) {
+            victim.limiter.release(victim.permits);
+        }
+        dropped++;
+        System.out.println("Request queue full; dropped request for " + victim.key);
+    }
+
+    /**
+     * Waits for the most urgent request that can start, taking its rate limit permits. While the
+     * request at the head of the queue waits for its limiter, nothing behind it starts, so that
+     * requests are served in order, and an interactive request submitted meanwhile goes first.
+     */
+    private synchronized Request take() throws InterruptedException {
+        while (true) {
+            Request request = null;
+            for (Priority priority : Priority.values()) {
+                request = queues.get(priority).peekFirst();
+                if (request != null) {
+                    break;
+                }
+            }
+            if (request == null) {
+                wait();
+                continue;
+            }
+
+            if (request.limiter != null && !request.permitsHeld) {
+                if (request.limiter.tryAcquire(request.permits)) {
+                    request.permitsHeld = true;
+                } else {
+                    if (request.rateLimitedSince == 0) {
+                        request.rateLimitedSince = System.nanoTime();
+                    }
+                    // Woken early by new requests, which may be more urgent
+                    TimeUnit.NANOSECONDS.timedWait(this,
+                        Math.max(TimeUnit.MILLISECONDS.toNanos(1), request.limiter.nanosUntilAvailable(request.permits)));
+                    continue;
+                }
+            }
+
+            queues.get(request.priority).pollFirst();
+            waitingByKey.remove(request.key);
+            long now = System.nanoTime();
+            waitTimes.get(request.priority).add(now - request.submitTime);
+            if (request.rateLimitedSince != 0) {
+                rateLimited++;
+                rateLimitWaitNanos += now - request.rateLimitedSince;
+            }
+            return request;
+        }
+    }
+
+    private void runRequests() {
+        while (true) {
+            Request request;
+            try {
+                request = take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                WeatherData result = request.fetch.fetch();
+                for (Consumer<WeatherData> callback : request.callbacks) {
+                    callback.accept(result);
+                }
+                finished(true);
+            } catch (WeatherException e) {
+                finished(false);
+                System.out.println("Unable to fetch weather: " + e);
+            } catch (RuntimeException e) {
+                finished(false);
+                System.err.println("Weather request for " + request.key + " failed:");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private synchronized void finished(boolean success) {
+        if (success) {
+            succeeded++;
+        } else {
+            failed++;
+        }
+    }
+
+    /**
+     * Returns a snapshot of the queue’s current depth and its history so far.
+     */
+    public synchronized Stats getStats() {
+        Map<Priority, WaitTimes> waitTimesCopy = new EnumMap<>(Priority.class);
+        waitTimes.forEach((priority, times) -> waitTimesCopy.put(priority, times.copy()));
+        return new Stats(
+            waitingByKey.size(), peakDepth, merged, dropped, succeeded, failed,
+            rateLimited, rateLimitWaitNanos, waitTimesCopy);
+    }
+
+    private static class Request {
+        private final String key;
+        private Priority priority;
+        private final RateLimiter limiter;
+        private final int permits;
+        private boolean permitsHeld;
+        private final Fetch fetch;
+        private final List<Consumer<WeatherData>> callbacks = new ArrayList<>(1);
+        private final long submitTime = System.nanoTime();
+        private long rateLimitedSince;  // 0 if it never had to wait for permits
+
+        Request(
+                String key, Priority priority, RateLimiter limiter, int permits, boolean permitsHeld,
+                Fetch fetch, Consumer<WeatherData> callback) {
+            this.key = key;
+            this.priority = priority;
+            this.limiter = limiter;
+            this.permits = permits;
+            this.permitsHeld = permitsHeld;
+            this.fetch = fetch;
+            callbacks.add(callback);
+        }
+    }
+
+    private static class WaitTimes {
+        private long count, total, max;
+
+        void add(long nanos) {
+            count++;
+            total += nanos;
+            max = Math.max(max, nanos);
+        }
+
+        WaitTimes copy() {
+            WaitTimes copy = new WaitTimes();
+            copy.count = count;
+            copy.total = total;
+            copy.max = max;
+            return copy;
+        }
+    }
+
+    /**
+     * Queue metrics. Wait time is from when a request is submitted to when a thread starts it.
+     */
+    public static class Stats {
+        private final int depth, peakDepth;
+        private final long merged, dropped, succeeded, failed;
+        private final long rateLimited, rateLimitWaitNanos;
+        private final Map<Priority, WaitTimes> waitTimes;
+
+        private Stats(
+                int depth, int peakDepth,
+                long merged, long dropped, long succeeded, long failed,
+                long rateLimited, long rateLimitWaitNanos,
+                Map<Priority, WaitTimes> waitTimes) {
+            this.depth = depth;
+            this.peakDepth = peakDepth;
+            this.merged = merged;
+            this.dropped = dropped;
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.rateLimited = rateLimited;
+            this.rateLimitWaitNanos = rateLimitWaitNanos;
+            this.waitTimes = waitTimes;
+        }
+
+        /**
+         * The number of requests waiting to start.
+         */
+        public int getQueueDepth() {
+            return depth;
+        }
+
+        public int getPeakQueueDepth() {
+            return peakDepth;
+        }
+
+        /**
+         * The number of requests merged into one already waiting for the same data.
+         */
+        public long getMergedCount() {
+            return merged;
+        }
+
+        /**
+         * The number of requests dropped because the queue was full.
+         */
+        public long getDroppedCount() {
+            return dropped;
+        }
+
+        /**
+         * The number of requests that fetched data and passed it to their callbacks.
+         */
+        public long getSucceededCount() {
+            return succeeded;
+        }
+
+        /**
+         * The number of requests whose fetch or callbacks threw an exception.
+         */
+        public long getFailedCount() {
+            return failed;
+        }
+
+        /**
+         * The number of requests that had to wait at the head of the queue for their rate limit
+         * permits before starting.
+         */
+        public long getRateLimitedCount() {
+            return rateLimited;
+        }
+
+        /**
+         * The total time requests spent waiting at the head of the queue for rate limit permits.
+         */
+        public double getRateLimitWaitMillis() {
+            return rateLimitWaitNanos / 1e6;
+        }
+
+        /**
+         * The number of requests of the given priority that have started.
+         */
+        public long getStartedCount(Priority priority) {
+            return waitTimes.get(priority).count;
+        }
+
+        public double getMeanWaitMillis(Priority priority) {
+            WaitTimes times = waitTimes.get(priority);
+            return times.count == 0 ? 0 : times.total / 1e6 / times.count;
+        }
+
+        public double getMaxWaitMillis(Priority priority) {
+            return waitTimes.get(priority).max / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder result = new StringBuilder()
+                .append("depth ").append(depth)
+                .append(" (peak ").append(peakDepth).append("), ")
+                .append(merged).append(" merged, ")
+                .append(dropped).append(" dropped, ")
+                .append(succeeded).append(" succeeded, ")
+                .append(failed).append(" failed, ")
+                .append(rateLimited).append(String.format(" rate limited for %.1f s", rateLimitWaitNanos / 1e9));
+            for (Priority priority : Priority.values()) {
+                result.append(String.format(
+                    "; %s: %d started, wait mean %.1f ms, max %.1f ms",
+                    priority.name().toLowerCase(),
+                    getStartedCount(priority),
+                    getMeanWaitMillis(priority),
+                    getMaxWaitMillis(priority)));
+            }
+            return result.toString();
+        }
+    }
+}
@@ -0,0 +1,631 @@
+package comp127.weather.api;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * An append-only log of fixed-size records on disk, each a time and a fixed number of float
+ * columns, kept separately for each location. Meant for months of weather samples: appending is
+ * a few memory writes, and reading one location’s data for a time range reads only that data.
+ * <p>
+ * <b>Layout.</b> The log is a directory of segment files of a fixed size, each memory-mapped.
+ * Segments are divided into chunks (a page each, by default), and each chunk holds records for a
+ * single location, stored by column: all the times, then all of the first column, and so on. A
+ * location’s records are therefore spread over its own chunks, and a scan for it never touches
+ * another location’s pages, nor the columns it didn’t ask for.
+ * <p>
+ * <b>Index.</b> The log keeps one index entry per chunk in memory: its location, record count, and
+ * first and last times. Scans binary search a location’s entries for the first chunk in range.
+ * When a segment fills up, its entries are saved next to it, so reopening the log reads the index
+ * rather than every chunk.
+ * <p>
+ * <b>Memory.</b> Only the segment being written is mapped. Scans read the chunks they need from
+ * sealed segments into a one-chunk buffer, keeping the files of the
+ * {@value #MAX_OPEN_SEALED_SEGMENTS} most recently read segments open. The log’s address space and
+ * open files therefore stay bounded however much history it holds, and a scan across many
+ * segments costs a read per chunk rather than mapping and unmapping whole segments.
+ * <p>
+ * <b>Durability.</b> Records are visible to the operating system as soon as they are appended, so
+ * they survive the program exiting or crashing; {@link #flush()} also makes them survive the
+ * computer crashing. A chunk’s record count is written after the record, so a crash can lose the
+ * last record but never leaves half of one.
+ * <p>
+ * All methods are synchronized. Each location’s records must be appended in time order.
+ */
+public class TimeSeriesLog implements Closeable, Flushable {
+
+    public static final int
+        DEFAULT_CHUNK_SIZE = 4096,
+        DEFAULT_SEGMENT_SIZE = 64 << 20;
+
+    private static final String
+        SETTINGS_FILE = "log.properties",
+        LOCATIONS_FILE = "locations.txt";
+
+    private static final int MAGIC = 0x54534C31;  // “TSL1”
+
+    /**
+     * Sealed segment files kept open for reading. Scans of recent data, the usual kind, touch one
+     * or two segments; longer ones reopen files past this many, which is cheap.
+     */
+    static final int MAX_OPEN_SEALED_SEGMENTS = 256;
+
+    // Chunk header
+    private static final int
+        MAGIC_OFFSET = 0,
+        LOCATION_OFFSET = 4,
+        COUNT_OFFSET = 8,
+        FIRST_TIME_OFFSET = 16,
+        LAST_TIME_OFFSET = 24,
+        HEADER_SIZE = 32;
+
+    private final Path directory;
+    private final int columnCount, chunkSize, segmentSize, recordsPerChunk;
+
+    private int segmentCount;  // the last one is the active segment
+    private MappedByteBuffer activeSegment;
+    private int nextChunkOffset;
+
+    // Open sealed segments, least recently read first
+    private final Map<Integer, FileChannel> sealedSegments = new LinkedHashMap<>(16, 0.75f, true);
+
+    // The sealed chunk last read, which never changes once read
+    private final ByteBuffer chunkBuffer;
+    private int bufferedSegment = -1, bufferedOffset;
+
+    private final Map<String, Series> seriesByLocation = new HashMap<>();
+    private final List<Series> seriesById = new ArrayList<>();
+    private final Writer locationsFile;
+
+    private boolean closed;
+
+    /**
+     * Opens the log in the given directory with the default chunk and segment sizes, creating it
+     * if necessary.
+     */
+    public TimeSeriesLog(Path directory, int columnCount) throws IOException {
+        this(directory, columnCount, DEFAULT_CHUNK_SIZE, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens the log in the given directory, creating it if necessary. An existing log must have
+     * been created with the same settings.
+     *
+     * @param chunkSize   Bytes per chunk: a power of two, at least 512. The page size (4096) keeps
+     *                    scans from reading partial pages of other locations.
+     * @param segmentSize Bytes per segment file, a multiple of chunkSize.
+     */
+    public TimeSeriesLog(Path directory, int columnCount, int chunkSize, int segmentSize) throws IOException {
+        if (columnCount < 0) {
+            throw new IllegalArgumentException("columnCount must be nonnegative, but was " + columnCount);
+        }
+        if (chunkSize < 512 || Integer.bitCount(chunkSize) != 1) {
+            throw new IllegalArgumentException("chunkSize must be a power of two and at least 512, but was " + chunkSize);
+        }
+        if (segmentSize < chunkSize || segmentSize % chunkSize != 0) {
+            throw new IllegalArgumentException("segmentSize must be a multiple of chunkSize, but was " + segmentSize);
+        }
+        this.directory = directory;
+        this.columnCount = columnCount;
+        this.chunkSize = chunkSize;
+        this.segmentSize = segmentSize;
+        recordsPerChunk = (chunkSize - HEADER_SIZE) / (Long.BYTES + columnCount * Float.BYTES);
+        if (recordsPerChunk < 1) {
+            throw new IllegalArgumentException(columnCount + " columns don’t fit in a chunk of " + chunkSize);
+        }
+        chunkBuffer = ByteBuffer.allocateDirect(chunkSize).order(ByteOrder.LITTLE_ENDIAN);
+
+        Files.createDirectories(directory);
+        checkSettings();
+        loadLocations();
+        loadSegments();
+        locationsFile = Files.newBufferedWriter(
+            directory.resolve(LOCATIONS_FILE), StandardCharsets.UTF_8,
+            StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    // –––––– Opening ––––––
+
+    private void checkSettings() throws IOException {
+        Path file = directory.resolve(SETTINGS_FILE);
+        Properties expected = new Properties();
+        expected.setProperty("columns", String.valueOf(columnCount));
+        expected.setProperty("chunk_size", String.valueOf(chunkSize));
+        expected.setProperty("segment_size", String.valueOf(segmentSize));
+
+        if (!Files.exists(file)) {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                expected.store(out, "TimeSeriesLog settings; do not edit");
+            }
+            return;
+        }
+        Properties actual = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            actual.load(in);
+        }
+        if (!actual.equals(expected)) {
+            throw new IOException("Log in " + directory + " has settings " + actual + ", not " + expected);
+        }
+    }
+
+    private void loadLocations() throws IOException {
+        Path file = directory.resolve(LOCATIONS_FILE);
+        if (Files.exists(file)) {
+            for (String location : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                addSeries(location);
+            }
+        }
+    }
+
+    private void loadSegments() throws IOException {
+        while (Files.exists(segmentFile(segmentCount))) {
+            segmentCount++;
+        }
+        for (int segment = 0; segment < segmentCount; segment++) {
+            if (Files.exists(indexFile(segment))) {
+                loadIndex(segment);
+            } else if (segment == segmentCount - 1) {
+                // Unsealed: the segment that was being written. Its chunk headers are the index.
+                activeSegment = mapForWriting(segment);
+                nextChunkOffset = 0;
+                while (nextChunkOffset < segmentSize && activeSegment.getInt(nextChunkOffset + MAGIC_OFFSET) == MAGIC) {
+                    addChunk(segment, nextChunkOffset,
+                        activeSegment.getInt(nextChunkOffset + LOCATION_OFFSET),
+                        activeSegment.getInt(nextChunkOffset + COUNT_OFFSET),
+                        activeSegment.getLong(nextChunkOffset + FIRST_TIME_OFFSET),
+                        activeSegment.getLong(nextChunkOffset + LAST_TIME_OFFSET));
+                    nextChunkOffset += chunkSize;
+                }
+            } else {
+                throw new IOException("Segment " + segmentFile(segment) + " has no index");
+            }
+        }
+        if (activeSegment == null) {
+            startSegment(segmentCount);
+        }
+    }
+
+    private void loadIndex(int segment) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(indexFile(segment))))) {
+            int chunks = in.readInt();
+            for (int i = 0; i < chunks; i++) {
+                addChunk(segment, i * chunkSize, in.readInt(), in.readInt(), in.readLong(), in.readLong());
+            }
+        }
+    }
+
+    private void addChunk(int segment, int offset, int locationId, int count, long firstTime, long lastTime)
+            throws IOException {
+        if (locationId < 0 || locationId >= seriesById.size()) {
+            throw new IOException("Chunk at " + offset + " in " + segmentFile(segment) + " has unknown location " + locationId);
+        }
+        seriesById.get(locationId).addChunk(segment, offset, count, firstTime, lastTime);
+    }
+
+    private Path segmentFile(int segment) {
+        return directory.resolve(String.format("segment-%06d.dat", segment));
+    }
+
+    private Path indexFile(int segment) {
+        return directory.resolve(String.format("segment-%06d.idx", segment));
+    }
+
+    private MappedByteBuffer mapForWriting(int segment) throws IOException {
+        // The mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(segmentFile(segment),
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    // –––––– Writing ––––––
+
+    /**
+     * Appends a record. Allocates nothing unless the location is new or a new segment is needed.
+     *
+     * @param values One value per column; NaN for missing values. The array is not retained.
+     * @return true if the record was added; false if it is older than the location’s newest
+     *         record, in which case nothing changes.
+     */
+    public synchronized boolean append(String location, long timeMillis, float[] values) throws IOException {
+        if (values.length != columnCount) {
+            throw new IllegalArgumentException("Expected " + columnCount + " values, but got " + values.length);
+        }
+        ensureOpen();
+        Series series = seriesByLocation.get(location);
+        if (series == null) {
+            series = addSeries(location);
+            locationsFile.write(location);
+            locationsFile.write('\n');
+            locationsFile.flush();  // chunks must never refer to a location that isn’t saved
+        }
+
+        int chunk = series.chunkCount - 1;
+        if (chunk >= 0 && timeMillis < series.lastTimes[chunk]) {
+            return false;
+        }
+        if (!series.hasWritableChunk || series.counts[chunk] == recordsPerChunk) {
+            startChunk(series, timeMillis);
+            chunk = series.chunkCount - 1;
+        }
+
+        int base = series.offsets[chunk], n = series.counts[chunk];
+        activeSegment.putLong(timeOffset(base, n), timeMillis);
+        for (int column = 0; column < columnCount; column++) {
+            activeSegment.putFloat(valueOffset(base, column, n), values[column]);
+        }
+        activeSegment.putLong(base + LAST_TIME_OFFSET, timeMillis);
+        activeSegment.putInt(base + COUNT_OFFSET, n + 1);
+        series.counts[chunk] = n + 1;
+        series.lastTimes[chunk] = timeMillis;
+        return true;
+    }
+
+    private void startChunk(Series series, long firstTime) throws IOException {
+        if (nextChunkOffset + chunkSize > segmentSize) {
+            sealActiveSegment();
+            startSegment(segmentCount);
+        }
+        int offset = nextChunkOffset;
+        nextChunkOffset += chunkSize;
+        activeSegment.putInt(offset + LOCATION_OFFSET, series.id);
+        activeSegment.putInt(offset + COUNT_OFFSET, 0);
+        activeSegment.putLong(offset + FIRST_TIME_OFFSET, firstTime);
+        activeSegment.putLong(offset + LAST_TIME_OFFSET, firstTime);
+        activeSegment.putInt(offset + MAGIC_OFFSET, MAGIC);  // last, so reopening sees a whole header
+        series.addChunk(segmentCount - 1, offset, 0, firstTime, firstTime);
+        series.hasWritableChunk = true;
+    }
+
+    private void startSegment(int segment) throws IOException {
+        activeSegment = mapForWriting(segment);
+        segmentCount = segment + 1;
+        nextChunkOffset = 0;
+        for (Series series : seriesById) {
+            series.hasWritableChunk = false;
+        }
+    }
+
+    /**
+     * Writes the active segment to disk along with its part of the index, after which it is
+     * never written again.
+     */
+    private void sealActiveSegment() throws IOException {
+        activeSegment.force();
+        int segment = segmentCount - 1;
+        int chunks = nextChunkOffset / chunkSize;
+        Path temp = directory.resolve(indexFile(segment).getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(chunks);
+            for (int offset = 0; offset < nextChunkOffset; offset += chunkSize) {
+                out.writeInt(activeSegment.getInt(offset + LOCATION_OFFSET));
+                out.writeInt(activeSegment.getInt(offset + COUNT_OFFSET));
+                out.writeLong(activeSegment.getLong(offset + FIRST_TIME_OFFSET));
+                out.writeLong(activeSegment.getLong(offset + LAST_TIME_OFFSET));
+            }
+        }
+        Files.move(temp, indexFile(segment));
+        // Reads of this segment will open it for reading, and the writable mapping goes
+        activeSegment = null;
+    }
+
+    private Series addSeries(String location) {
+        Series series = new Series(seriesById.size());
+        seriesById.add(series);
+        seriesByLocation.put(location, series);
+        return series;
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        ensureOpen();
+        activeSegment.force();
+        locationsFile.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            flush();
+            locationsFile.close();
+            for (FileChannel channel : sealedSegments.values()) {
+                channel.close();
+            }
+            sealedSegments.clear();
+            closed = true;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Log in " + directory + " is closed");
+        }
+    }
+
+    // –––––– Reading ––––––
+
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    public int getRecordsPerChunk() {
+        return recordsPerChunk;
+    }
+
+    /**
+     * The locations that have records, in the order they were first added.
+     */
+    public synchronized List<String> getLocations() {
+        String[] locations = new String[seriesById.size()];
+        seriesByLocation.forEach((location, series) -> locations[series.id] = location);
+        return Collections.unmodifiableList(Arrays.asList(locations));
+    }
+
+    /**
+     * The time of the given location’s newest record, or Long.MIN_VALUE if it has none.
+     */
+    public synchronized long getNewestTime(String location) {
+        Series series = seriesByLocation.get(location);
+        return (series == null || series.chunkCount == 0)
+            ? Long.MIN_VALUE
+            : series.lastTimes[series.chunkCount - 1];
+    }
+
+    /**
+     * Reads the given columns of the given location’s records from startMillis to endMillis,
+     * inclusive. Only the chunks holding those records are read, and within them only the times
+     * and the requested columns.
+     */
+    public synchronized Slice scan(String location, long startMillis, long endMillis, int... columns)
+            throws IOException {
+        ensureOpen();
+        for (int column : columns) {
+            if (column < 0 || column >= columnCount) {
+                throw new IndexOutOfBoundsException("No column " + column + " in a log of " + columnCount);
+            }
+        }
+        Series series = seriesByLocation.get(location);
+        if (series == null) {
+            return new Slice(new long[0], new float[columnCount][], columns);
+        }
+
+        // First pass sizes the result, touching only the time column of the edge chunks
+        int firstChunk = series.firstChunkEndingAtOrAfter(startMillis);
+        int total = 0;
+        for (int chunk = firstChunk; chunk < series.chunkCount && series.firstTimes[chunk] <= endMillis; chunk++) {
+            int[] range = recordRange(series, chunk, startMillis, endMillis);
+            total += range[1] - range[0];
+        }
+
+        long[] times = new long[total];
+        float[][] values = new float[columnCount][];
+        for (int column : columns) {
+            values[column] = new float[total];
+        }
+        int index = 0;
+        for (int chunk = firstChunk; chunk < series.chunkCount && series.firstTimes[chunk] <= endMillis; chunk++) {
+            int[] range = recordRange(series, chunk, startMillis, endMillis);
+            ByteBuffer buffer = readChunk(series, chunk);
+            int base = buffer.position();
+            for (int n = range[0]; n < range[1]; n++) {
+                times[index + n - range[0]] = buffer.getLong(timeOffset(base, n));
+            }
+            for (int column : columns) {
+                float[] dest = values[column];
+                for (int n = range[0]; n < range[1]; n++) {
+                    dest[index + n - range[0]] = buffer.getFloat(valueOffset(base, column, n));
+                }
+            }
+            index += range[1] - range[0];
+        }
+        return new Slice(times, values, columns);
+    }
+
+    /**
+     * Returns the [start, end) record numbers within the chunk that fall in the time range. Chunks
+     * entirely inside the range need no reading at all.
+     */
+    private int[] recordRange(Series series, int chunk, long startMillis, long endMillis) throws IOException {
+        int count = series.counts[chunk];
+        if (series.firstTimes[chunk] >= startMillis && series.lastTimes[chunk] <= endMillis) {
+            return new int[] {0, count};
+        }
+        ByteBuffer buffer = readChunk(series, chunk);
+        int base = buffer.position();
+        int end = (endMillis == Long.MAX_VALUE)
+            ? count
+            : firstRecordAtOrAfter(buffer, base, count, endMillis + 1);
+        return new int[] {firstRecordAtOrAfter(buffer, base, count, startMillis), end};
+    }
+
+    private int firstRecordAtOrAfter(ByteBuffer buffer, int base, int count, long timeMillis) {
+        int low = 0, high = count;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getLong(timeOffset(base, mid)) < timeMillis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns a buffer holding the given chunk, starting at the buffer’s position: the active
+     * segment if the chunk is in it, or else the chunk buffer, which is refilled from the sealed
+     * segment’s file unless it already holds the chunk.
+     */
+    private ByteBuffer readChunk(Series series, int chunk) throws IOException {
+        int segment = series.segments[chunk], offset = series.offsets[chunk];
+        if (segment == segmentCount - 1 && activeSegment != null) {
+            return activeSegment.position(offset);
+        }
+        if (segment != bufferedSegment || offset != bufferedOffset) {
+            bufferedSegment = -1;  // in case the read fails
+            FileChannel channel = sealedSegment(segment);
+            chunkBuffer.clear();
+            while (chunkBuffer.hasRemaining()) {
+                if (channel.read(chunkBuffer, offset + chunkBuffer.position()) < 0) {
+                    throw new IOException("Segment " + segmentFile(segment) + " ends before its chunk at " + offset);
+                }
+            }
+            bufferedSegment = segment;
+            bufferedOffset = offset;
+        }
+        return chunkBuffer.position(0);
+    }
+
+    private FileChannel sealedSegment(int segment) throws IOException {
+        FileChannel channel = sealedSegments.get(segment);
+        if (channel == null) {
+            if (sealedSegments.size() == MAX_OPEN_SEALED_SEGMENTS) {
+                Iterator<FileChannel> eldest = sealedSegments.values().iterator();
+                FileChannel evicted = eldest.next();
+                eldest.remove();
+                evicted.close();
+            }
+            channel = FileChannel.open(segmentFile(segment), StandardOpenOption.READ);
+            sealedSegments.put(segment, channel);
+        }
+        return channel;
+    }
+
+    /**
+     * The number of sealed segment files currently open for reading.
+     */
+    synchronized int getOpenSealedSegmentCount() {
+        return sealedSegments.size();
+    }
+
+    private int timeOffset(int chunkBase, int record) {
+        return chunkBase + HEADER_SIZE + record * Long.BYTES;
+    }
+
+    private int valueOffset(int chunkBase, int column, int record) {
+        return chunkBase + HEADER_SIZE
+            + recordsPerChunk * Long.BYTES
+            + (column * recordsPerChunk + record) * Float.BYTES;
+    }
+
+    /**
+     * One location’s index entries, one per chunk, in time order.
+     */
+    private static class Series {
+        private final int id;
+        private int chunkCount;
+        private int[] segments = new int[4], offsets = new int[4], counts = new int[4];
+        private long[] firstTimes = new long[4], lastTimes = new long[4];
+
+        /**
+         * Whether the last chunk is in the active segment and was started since the log was
+         * opened, so records can be added to it.
+         */
+        private boolean hasWritableChunk;
+
+        Series(int id) {
+            this.id = id;
+        }
+
+        void addChunk(int segment, int offset, int count, long firstTime, long lastTime) {
+            if (chunkCount == segments.length) {
+                int capacity = chunkCount * 2;
+                segments = Arrays.copyOf(segments, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+                firstTimes = Arrays.copyOf(firstTimes, capacity);
+                lastTimes = Arrays.copyOf(lastTimes, capacity);
+            }
+            segments[chunkCount] = segment;
+            offsets[chunkCount] = offset;
+            counts[chunkCount] = count;
+            firstTimes[chunkCount] = firstTime;
+            lastTimes[chunkCount] = lastTime;
+            chunkCount++;
+        }
+
+        int firstChunkEndingAtOrAfter(long timeMillis) {
+            int low = 0, high = chunkCount;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (lastTimes[mid] < timeMillis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Records read by a scan, by column.
+     */
+    public static class Slice {
+        private final long[] times;
+        private final float[][] values;
+
+        private Slice(long[] times, float[][] values, int[] columns) {
+            this.times = times;
+            this.values = values;
+            for (int column : columns) {
+                if (values[column] == null) {
+                    values[column] = new float[0];
+                }
+            }
+        }
+
+        public int size() {
+            return times.length;
+        }
+
+        /**
+         * The records’ times, in order. The array belongs to the caller.
+         */
+        public long[] getTimes() {
+            return times;
+        }
+
+        /**
+         * The values of a column the scan read, parallel to {@link #getTimes()}. The array belongs
+         * to the caller.
+         *
+         * @throws IllegalArgumentException if the scan didn’t read the column.
+         */
+        public float[] getColumn(int column) {
+            if (values[column] == null) {
+                throw new IllegalArgumentException("Column " + column + " was not read");
+            }
+            return values[column];
+        }
+    }
+}
@@ -3,7 +3,9 @@ package comp127.weather.api;
 import net.aksingh.owmjapis.CurrentWeather;
 import net.aksingh.owmjapis.HourlyForecast;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.Date;
 import java.util.DoubleSummaryStatistics;
 import java.util.List;
 
@@ -18,6 +20,8 @@ public class WeatherData {
 
     private final List<ForecastConditions> hourlyForecasts;
 
+    private final Date fetchTime = new Date();
+
     /**
      * For getting API results
      */
@@ -67,6 +71,20 @@ public class WeatherData {
         return Collections.unmodifiableList(hourlyForecasts);
     }
 
+    /**
+     * When this data arrived from the server.
+     */
+    public Date getFetchTime() {
+        return new Date(fetchTime.getTime());  // a copy, as Dates are mutable
+    }
+
+    /**
+     * How long ago this data arrived from the server. Data served from a cache may be a while old.
+     */
+    public Duration getAge() {
+        return Duration.ofMillis(System.currentTimeMillis() - fetchTime.getTime());
+    }
+
     /**
      * Increases the temperature range in the hourly forecast to reflect forecast uncertainty,
      * based on (1) range of nearby temperatures and (2) time in the future. OpenWeather mostly
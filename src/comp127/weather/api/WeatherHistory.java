@@ -0,0 +1,92 @@
+package comp127.weather.api;
+
+import comp127.weather.api.ConditionsHistory.Field;
+import comp127.weather.api.ConditionsHistory.Summary;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps a {@link ConditionsHistory} for each location, so that trends survive the WeatherData
+ * they came from being replaced.
+ * <p>
+ * Memory is bounded: each location keeps a fixed number of samples, and once there are
+ * maxLocations, adding a new location recycles the history of the one least recently used. For
+ * that reason histories are only queried through this class, which holds its lock for the query,
+ * and never handed out.
+ */
+public class WeatherHistory {
+    private final int samplesPerLocation, maxLocations;
+
+    private final Map<String, ConditionsHistory> histories;
+
+    public WeatherHistory(int samplesPerLocation, int maxLocations) {
+        if (maxLocations < 1) {
+            throw new IllegalArgumentException("maxLocations must be at least 1, but was " + maxLocations);
+        }
+        this.samplesPerLocation = samplesPerLocation;
+        this.maxLocations = maxLocations;
+        histories = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Adds the current conditions in the given data to the location’s history, as of when the
+     * data was fetched. Data no newer than what the history already has is ignored, so it is
+     * safe to record the same data more than once.
+     *
+     * @return true if a sample was added
+     */
+    public synchronized boolean record(String location, WeatherData data) {
+        return historyFor(location).add(data.getFetchTime(), data.getCurrentConditions());
+    }
+
+    /**
+     * Summarizes the given field over the given length of time leading up to the location’s most
+     * recent sample. The summary is empty if the location has no history.
+     */
+    public synchronized Summary summarize(String location, Field field, Duration window) {
+        ConditionsHistory history = histories.get(location);
+        return history == null ? Summary.EMPTY : history.summarize(field, window);
+    }
+
+    /**
+     * Summarizes the given field over the location’s samples from the given start time to the
+     * given end time, inclusive. The summary is empty if the location has no history.
+     */
+    public synchronized Summary summarize(String location, Field field, Date start, Date end) {
+        ConditionsHistory history = histories.get(location);
+        return history == null ? Summary.EMPTY : history.summarize(field, start, end);
+    }
+
+    /**
+     * Returns the history for the given location, or null if there is none. Only for queries made
+     * right away: if the location is evicted, its history is reused for another.
+     */
+    synchronized ConditionsHistory get(String location) {
+        return histories.get(location);
+    }
+
+    public synchronized int getLocationCount() {
+        return histories.size();
+    }
+
+    private ConditionsHistory historyFor(String location) {
+        ConditionsHistory history = histories.get(location);
+        if (history != null) {
+            return history;
+        }
+        if (histories.size() >= maxLocations) {
+            Iterator<ConditionsHistory> eldest = histories.values().iterator();
+            history = eldest.next();
+            eldest.remove();
+            history.clear();
+        } else {
+            history = new ConditionsHistory(samplesPerLocation);
+        }
+        histories.put(location, history);
+        return history;
+    }
+}
@@ -0,0 +1,139 @@
+package comp127.weather.api;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Date;
+
+/**
+ * Keeps every observation and forecast fetched, per location, on disk for months, e.g. to see how
+ * accurate forecasts turned out to be. Stored as two {@link TimeSeriesLog}s in subdirectories of
+ * the given directory:
+ * <ul>
+ *   <li>observations: current conditions, at the time they were fetched, with the
+ *       {@link ObservationColumn} columns.</li>
+ *   <li>forecasts: each forecast, at the time it was fetched (“issued”), with the
+ *       {@link ForecastColumn} columns. The time it is a forecast for is the issue time plus
+ *       {@link ForecastColumn#LEAD_HOURS}.</li>
+ * </ul>
+ * Missing values are stored as NaN.
+ */
+public class WeatherLog implements Closeable, Flushable {
+
+    public enum ObservationColumn {
+        TEMPERATURE, HUMIDITY, PRESSURE, CLOUD_COVERAGE, WIND_SPEED, WIND_DIRECTION
+    }
+
+    public enum ForecastColumn {
+        LEAD_HOURS,
+        TEMPERATURE, MIN_TEMPERATURE, MAX_TEMPERATURE,
+        HUMIDITY, PRESSURE, CLOUD_COVERAGE, WIND_SPEED, WIND_DIRECTION
+    }
+
+    private static final double MILLIS_PER_HOUR = 3_600_000.0;
+
+    private final TimeSeriesLog observations, forecasts;
+
+    // Reused for every record; guarded by this
+    private final float[] observationRow = new float[ObservationColumn.values().length];
+    private final float[] forecastRow = new float[ForecastColumn.values().length];
+
+    public WeatherLog(Path directory) throws IOException {
+        observations = new TimeSeriesLog(directory.resolve("observations"), observationRow.length);
+        forecasts = new TimeSeriesLog(directory.resolve("forecasts"), forecastRow.length);
+    }
+
+    /**
+     * Appends the current conditions and forecasts in the given data. Data no newer than what has
+     * already been recorded for the location is ignored, so it is safe to record the same data
+     * more than once.
+     *
+     * @return true if the data was recorded
+     */
+    public synchronized boolean record(String location, WeatherData data) throws IOException {
+        long issueTime = data.getFetchTime().getTime();
+        if (issueTime <= observations.getNewestTime(location)) {
+            return false;
+        }
+
+        CurrentConditions current = data.getCurrentConditions();
+        observationRow[ObservationColumn.TEMPERATURE.ordinal()] = valueOf(current.getTemperature());
+        observationRow[ObservationColumn.HUMIDITY.ordinal()] = valueOf(current.getHumidity());
+        observationRow[ObservationColumn.PRESSURE.ordinal()] = valueOf(current.getPressure());
+        observationRow[ObservationColumn.CLOUD_COVERAGE.ordinal()] = valueOf(current.getCloudCoverage());
+        observationRow[ObservationColumn.WIND_SPEED.ordinal()] = valueOf(current.getWindSpeed());
+        observationRow[ObservationColumn.WIND_DIRECTION.ordinal()] = valueOf(current.getWindDirectionInDegrees());
+        observations.append(location, issueTime, observationRow);
+
+        for (ForecastConditions forecast : data.getForecasts()) {
+            Date predictionTime = forecast.getPredictionTime();
+            if (predictionTime == null) {
+                continue;
+            }
+            forecastRow[ForecastColumn.LEAD_HOURS.ordinal()] =
+                (float) ((predictionTime.getTime() - issueTime) / MILLIS_PER_HOUR);
+            forecastRow[ForecastColumn.TEMPERATURE.ordinal()] = valueOf(forecast.getTemperature());
+            forecastRow[ForecastColumn.MIN_TEMPERATURE.ordinal()] = valueOf(forecast.getMinTemperature());
+            forecastRow[ForecastColumn.MAX_TEMPERATURE.ordinal()] = valueOf(forecast.getMaxTemperature());
+            forecastRow[ForecastColumn.HUMIDITY.ordinal()] = valueOf(forecast.getHumidity());
+            forecastRow[ForecastColumn.PRESSURE.ordinal()] = valueOf(forecast.getPressure());
+            forecastRow[ForecastColumn.CLOUD_COVERAGE.ordinal()] = valueOf(forecast.getCloudCoverage());
+            forecastRow[ForecastColumn.WIND_SPEED.ordinal()] = valueOf(forecast.getWindSpeed());
+            forecastRow[ForecastColumn.WIND_DIRECTION.ordinal()] = valueOf(forecast.getWindDirectionInDegrees());
+            forecasts.append(location, issueTime, forecastRow);
+        }
+        return true;
+    }
+
+    private static float valueOf(Double value) {
+        return value != null ? value.floatValue() : Float.NaN;
+    }
+
+    /**
+     * Reads the given columns of the location’s observations from start to end, inclusive.
+     */
+    public TimeSeriesLog.Slice scanObservations(String location, Date start, Date end, ObservationColumn... columns)
+            throws IOException {
+        int[] indices = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            indices[i] = columns[i].ordinal();
+        }
+        return observations.scan(location, start.getTime(), end.getTime(), indices);
+    }
+
+    /**
+     * Reads the given columns of the location’s forecasts issued from start to end, inclusive.
+     */
+    public TimeSeriesLog.Slice scanForecasts(String location, Date start, Date end, ForecastColumn... columns)
+            throws IOException {
+        int[] indices = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            indices[i] = columns[i].ordinal();
+        }
+        return forecasts.scan(location, start.getTime(), end.getTime(), indices);
+    }
+
+    public TimeSeriesLog getObservations() {
+        return observations;
+    }
+
+    public TimeSeriesLog getForecasts() {
+        return forecasts;
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        observations.flush();
+        forecasts.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            observations.close();
+        } finally {
+            forecasts.close();
+        }
+    }
+}
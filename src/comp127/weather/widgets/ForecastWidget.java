@@ -24,6 +24,8 @@ public class ForecastWidget implements WeatherWidget {
 
     private List<ForecastBox> boxes = new ArrayList<>();
 
+    private WeatherViewModel model;
+
     public ForecastWidget(double size) {
         this.size = size;
 
@@ -66,13 +68,20 @@ public class ForecastWidget implements WeatherWidget {
 
     @Override
     public void update(WeatherData data) {
+        update(WeatherViewModel.of(data));
+    }
+
+    @Override
+    public void update(WeatherViewModel model) {
+        this.model = model;
+
         boxGroup.removeAll();
         boxes.clear();  // Remove all the old ForecastBoxes from our list
 
         double x = size * 0.06;
         double y = size * 0.9;
 
-        for (ForecastConditions forecast : data.getForecasts()) {
+        for (ForecastConditions forecast : model.getForecasts()) {
             ForecastBox forecastBox = new ForecastBox(forecast, 0, 0, size * 0.03, size * 0.04);
             forecastBox.setCenter(x, y);
             boxGroup.add(forecastBox);
@@ -85,7 +94,9 @@ public class ForecastWidget implements WeatherWidget {
             }
         }
 
-        selectForecast(boxes.get(0));
+        if (!boxes.isEmpty()) {
+            selectForecast(boxes.get(0));
+        }
     }
 
     private void selectForecast(ForecastBox box) {
@@ -97,21 +108,21 @@ public class ForecastWidget implements WeatherWidget {
             }
         }
 
-        ForecastConditions forecast = box.getForecast();
+        // The boxes are in the same order as the model's forecasts
+        WeatherViewModel.Forecast forecast = model.getForecast(boxes.indexOf(box));
 
-        icon.setImagePath(forecast.getWeatherIcon());
+        icon.setImagePath(forecast.getIcon());
         icon.setScale(size/icon.getImageWidth()/4);
 
-        date.setText(FormattingHelpers.dayDate(forecast.getPredictionTime()));
+        date.setText(forecast.getDay());
 
-        time.setText(FormattingHelpers.time(forecast.getPredictionTime()));
+        time.setText(forecast.getTime());
 
-        currentTemp.setText(FormattingHelpers.roundOff(forecast.getTemperature())+ "\u2109");
+        currentTemp.setText(forecast.getTemperature());
 
-        highLowTemp.setText(FormattingHelpers.roundOff(forecast.getMinTemperature())+ "\u2109" 
-                    + " | " + FormattingHelpers.roundOff(forecast.getMaxTemperature())+ "\u2109");
+        highLowTemp.setText(forecast.getLowAndHigh());
 
-        description.setText(forecast.getWeatherDescription());
+        description.setText(forecast.getDescription());
 
         updateLayout();
     }
@@ -1,45 +1,214 @@
 package comp127.weather.widgets;
 
-import java.util.Date;
 import java.text.DateFormat;
 import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
 import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DecimalStyle;
+import java.util.Date;
 
 /**
  * Utilities to help widgets convert numbers and dates to strings.
+ *
+ * All of the methods are safe to use from multiple threads at once. Recent results are cached,
+ * since widgets format the same handful of temperatures and forecast times on every update.
  */
 @SuppressWarnings("WeakerAccess")
 public class FormattingHelpers {
-    /**
-     * Converts a number to a string with one digit past the decimal point, e.g. "312.3".
-     */
-    private static final DecimalFormat ONE_DECIMAL_PLACE = new DecimalFormat("#0.0");
-
     /**
      * Converts a date to a string showing the date and day of week in abbreviated form,
      * e.g. "Mon, Oct 14".
+     *
+     * Like any DateFormat, this is not safe to use from more than one thread at once; prefer
+     * dayDate(), which is.
      */
     public static final DateFormat WEEKDAY_AND_NAME = new SimpleDateFormat("E, MMM d");
 
     /**
      * Converts a date to a string showing the 12-hour time of day, e.g. "1:46 PM".
+     *
+     * Like any DateFormat, this is not safe to use from more than one thread at once; prefer
+     * time(), which is.
      */
     public static final DateFormat TIME_OF_DAY = new SimpleDateFormat("h:mm a");
 
-    public static String roundOff (Double number) {
-        if (number != null) {
-            return ONE_DECIMAL_PLACE.format(number);
-        } else {
+    /**
+     * Immutable equivalents of WEEKDAY_AND_NAME and TIME_OF_DAY, in the default zone and with the
+     * default locale's digits, which dayDate() and time() share between threads.
+     */
+    private static final DateTimeFormatter
+        DAY_DATE_FORMATTER = threadSafeFormatter("E, MMM d"),
+        TIME_FORMATTER = threadSafeFormatter("h:mm a");
+
+    /**
+     * The pattern roundOff() reproduces. Only used directly for numbers too large for fixed point.
+     */
+    private static final String ONE_DECIMAL_PLACE = "#0.0";
+
+    /**
+     * The symbols and minus sign (which is more than one character in some locales) that
+     * DecimalFormat uses for the default locale.
+     */
+    private static final DecimalFormatSymbols SYMBOLS;
+    private static final String NEGATIVE_PREFIX;
+
+    static {
+        DecimalFormat format = new DecimalFormat(ONE_DECIMAL_PLACE);
+        SYMBOLS = format.getDecimalFormatSymbols();
+        NEGATIVE_PREFIX = format.getNegativePrefix();
+    }
+
+    /**
+     * Above this, tenths no longer fit exactly in a long, so roundOff() uses DecimalFormat.
+     */
+    private static final double FIXED_POINT_LIMIT = 1e15;
+
+    private static final ThreadLocal<StringBuilder> buffers =
+        ThreadLocal.withInitial(() -> new StringBuilder(24));
+
+    private static final RecentlyFormatted recentNumbers = new RecentlyFormatted();
+    private static final RecentlyFormatted recentDays = new RecentlyFormatted();
+    private static final RecentlyFormatted recentTimes = new RecentlyFormatted();
+
+    /**
+     * Converts a number to a string with one digit past the decimal point, e.g. "312.3", or "-"
+     * if there is no number. Rounds half to even, like DecimalFormat.
+     */
+    public static String roundOff(Double number) {
+        if (number == null) {
             return "-";
         }
+        long key = Double.doubleToRawLongBits(number);
+        String text = recentNumbers.get(key);
+        if (text == null) {
+            StringBuilder buffer = buffers.get();
+            buffer.setLength(0);
+            appendRoundOff(buffer, number);
+            text = buffer.toString();
+            recentNumbers.put(key, text);
+        }
+        return text;
+    }
+
+    /**
+     * Appends a number with one digit past the decimal point, as roundOff() would show it.
+     */
+    public static void appendRoundOff(StringBuilder out, double number) {
+        if (!(Math.abs(number) < FIXED_POINT_LIMIT)) {
+            out.append(new DecimalFormat(ONE_DECIMAL_PLACE).format(number));
+            return;
+        }
+        long tenths = roundToTenths(Math.abs(number));
+        if (Double.doubleToRawLongBits(number) < 0) {
+            out.append(NEGATIVE_PREFIX);
+        }
+        char zero = SYMBOLS.getZeroDigit();
+        int start = out.length();
+        long whole = tenths / 10;
+        do {
+            out.insert(start, (char) (zero + whole % 10));
+            whole /= 10;
+        } while (whole > 0);
+        out.append(SYMBOLS.getDecimalSeparator())
+           .append((char) (zero + tenths % 10));
+    }
+
+    /**
+     * Returns the non-negative number times ten, rounded half to even. This works on the exact
+     * binary value, so 0.15 (really 0.1499999...) rounds down and 0.25 rounds to even.
+     */
+    private static long roundToTenths(double number) {
+        long bits = Double.doubleToRawLongBits(number);
+        int exponent = (int) ((bits >>> 52) & 0x7ff);
+        long mantissa = bits & 0xfffffffffffffL;
+        if (exponent == 0) {
+            exponent = 1;   // subnormal
+        } else {
+            mantissa |= 1L << 52;
+        }
+        int shift = 1075 - exponent;   // number = mantissa / 2^shift
+        if (shift <= 0) {
+            return (mantissa << -shift) * 10;
+        }
+        if (shift >= 62) {
+            return 0;   // less than 0.002
+        }
+        long scaled = mantissa * 10;   // fits, since mantissa < 2^53
+        long tenths = scaled >>> shift;
+        long remainder = scaled - (tenths << shift);
+        long half = 1L << (shift - 1);
+        if (remainder > half || (remainder == half && (tenths & 1) != 0)) {
+            tenths++;
+        }
+        return tenths;
+    }
+
+    /**
+     * Converts a date to a string like "Mon, Oct 14", or "-" if there is no date.
+     */
+    public static String dayDate(Date date) {
+        return format(date, DAY_DATE_FORMATTER, recentDays);
+    }
+
+    /**
+     * Converts a date to a string like "1:46 PM", or "-" if there is no date.
+     */
+    public static String time(Date date) {
+        return format(date, TIME_FORMATTER, recentTimes);
     }
 
-    public static String dayDate (Date date) {
-        return WEEKDAY_AND_NAME.format(date);
+    private static String format(Date date, DateTimeFormatter formatter, RecentlyFormatted recent) {
+        if (date == null) {
+            return "-";
+        }
+        long key = date.getTime();
+        String text = recent.get(key);
+        if (text == null) {
+            text = formatter.format(date.toInstant());
+            recent.put(key, text);
+        }
+        return text;
     }
 
-    public static String time (Date date) {
-        return TIME_OF_DAY.format(date);
+    private static DateTimeFormatter threadSafeFormatter(String pattern) {
+        return DateTimeFormatter.ofPattern(pattern)
+            .withDecimalStyle(DecimalStyle.ofDefaultLocale())
+            .withZone(ZoneId.systemDefault());
     }
 
+    /**
+     * A small direct-mapped cache from keys to formatted text. Entries are immutable, so threads
+     * can race to read and replace them without locking; the worst case is a missed hit.
+     */
+    private static class RecentlyFormatted {
+        private static final int SIZE = 256;
+
+        private final Entry[] entries = new Entry[SIZE];
+
+        String get(long key) {
+            Entry entry = entries[slot(key)];
+            return (entry != null && entry.key == key) ? entry.text : null;
+        }
+
+        void put(long key, String text) {
+            entries[slot(key)] = new Entry(key, text);
+        }
+
+        private static int slot(long key) {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash >>> 56) & (SIZE - 1);
+        }
+
+        private static class Entry {
+            final long key;
+            final String text;
+
+            Entry(long key, String text) {
+                this.key = key;
+                this.text = text;
+            }
+        }
+    }
 }
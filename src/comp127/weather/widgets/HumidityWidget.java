@@ -1,24 +1,24 @@
 package comp127.weather.widgets;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
 
-import comp127.weather.api.CurrentConditions;
 import comp127.weather.api.WeatherData;
 import Graphics.FontStyle;
 import Graphics.GraphicsGroup;
 import Graphics.GraphicsObject;
 import Graphics.GraphicsText;
-import Graphics.Image;
 import Graphics.Point;
+import Graphics.SpriteBatch;
 
+/**
+ * A widget that shows the humidity as a number, scattered with one raindrop per percent.
+ */
 public class HumidityWidget implements WeatherWidget{
     private final double size;
     private GraphicsGroup group;
     private Random rand;
 
-    private List<Image> droplets;
+    private SpriteBatch droplets;
 
     private Double humidity;
 
@@ -27,52 +27,38 @@ public class HumidityWidget implements WeatherWidget{
     public HumidityWidget(Double size) {
         this.size = size;
 
-        droplets = new ArrayList<>();
-
         rand = new Random();
         group = new GraphicsGroup();
 
         humidity = null;
 
+        // All the drops are one graphics object, so an update rearranges them in place
+        droplets = new SpriteBatch("condition-icons/drop.png");
+        group.add(droplets);
+
         humidityLabel = new GraphicsText();
         humidityLabel.setFont(FontStyle.BOLD, size * 0.08);
-
+        group.add(humidityLabel);
     }
 
     private void updateLayout() {
-        addDroplets();
+        scatterDroplets();
 
         humidityLabel.setCenter(size * 0.5, size * 0.5);
-        group.add(humidityLabel);
-
-    }
-
-    private void addDroplets() {
-        if (droplets != null) {
-            droplets.removeAll(droplets);
-            group.removeAll();
-        }
-        
-        if (humidity != null) {
-            for (int i = 0; i < humidity; i++) {
-                makeDrop();
-            }
-        }
     }
 
-    private void makeDrop() {
-        Image droplet = new Image(0, 0);
-        droplet.setImagePath("condition-icons/drop.png");
-
-        int height = rand.nextInt((int)(size * 0.05)) + 5; // +5 to make sure the drops aren't too small
-        droplet.setMaxHeight(height);
+    private void scatterDroplets() {
+        int count = (humidity != null) ? (int) Math.max(0, Math.ceil(humidity)) : 0;
+        droplets.setSpriteCount(count);
+        for (int i = 0; i < count; i++) {
+            int height = rand.nextInt(Math.max(1, (int)(size * 0.05))) + 5; // +5 to make sure the drops aren't too small
+            double width = droplets.getSpriteWidth(height);
 
-        int x = rand.nextInt((int)(Math.round(size) - droplet.getWidth()));
-        int y = rand.nextInt((int)(Math.round(size) - droplet.getHeight()));
-        droplet.setPosition(x, y);
-        
-        group.add(droplet);
-        droplets.add(droplet);
+            int x = rand.nextInt((int)(Math.round(size) - width));
+            int y = rand.nextInt((int)(Math.round(size) - height));
+            droplets.setSprite(i, x, y, height);
+        }
+        droplets.commitSprites();
     }
 
     @Override
@@ -82,11 +68,14 @@ public class HumidityWidget implements WeatherWidget{
 
     @Override
     public void update(WeatherData data) {
-        CurrentConditions currentConditions = data.getCurrentConditions();
+        update(WeatherViewModel.of(data));
+    }
 
-        humidity = currentConditions.getHumidity();
+    @Override
+    public void update(WeatherViewModel model) {
+        humidity = model.getHumidity();
 
-        humidityLabel.setText("Humidity: " + FormattingHelpers.roundOff(humidity) + "%");
+        humidityLabel.setText(model.getHumidityText());
 
         updateLayout();
     }
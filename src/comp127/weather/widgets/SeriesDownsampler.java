@@ -0,0 +1,113 @@
+package comp127.weather.widgets;
+
+/**
+ * Reduces a long time series to about one point per pixel column before it is drawn, so that the
+ * cost of drawing a chart depends on its width and not on how many samples it has.
+ *
+ * Both methods write into arrays the caller provides and reuses, and allocate nothing.
+ */
+final class SeriesDownsampler {
+    private SeriesDownsampler() {
+    }
+
+    /**
+     * Picks at most {@code threshold} of the first {@code count} samples of a line using
+     * Largest-Triangle-Three-Buckets, which keeps the peaks and dips that give the line its shape.
+     * The first and last samples are always kept. If there are no more samples than the threshold,
+     * all of them are kept.
+     *
+     * @param xs Sample x values, in increasing order.
+     * @param ys Sample y values.
+     * @param selected Receives the indices of the kept samples, in order. Must hold at least
+     *                 min(count, threshold) values.
+     * @return The number of kept samples.
+     */
+    static int largestTriangleThreeBuckets(double[] xs, double[] ys, int count, int threshold, int[] selected) {
+        if (count <= threshold || threshold < 3) {
+            for (int i = 0; i < count; i++) {
+                selected[i] = i;
+            }
+            return count;
+        }
+
+        // The first and last samples have buckets of their own; the rest are split evenly.
+        double bucketSize = (double) (count - 2) / (threshold - 2);
+        int kept = 0;
+        int previous = 0;
+        selected[kept++] = previous;
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Average of the next bucket, the third corner of each candidate triangle
+            int nextStart = (int) ((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, count);
+            double averageX = 0, averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += xs[i];
+                averageY += ys[i];
+            }
+            averageX /= nextEnd - nextStart;
+            averageY /= nextEnd - nextStart;
+
+            // Keep the sample in this bucket that makes the largest triangle with the previously
+            // kept sample and that average
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+            double largestArea = -1;
+            int largest = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs(
+                    (xs[previous] - averageX) * (ys[i] - ys[previous])
+                        - (xs[previous] - xs[i]) * (averageY - ys[previous]));
+                if (area > largestArea) {
+                    largestArea = area;
+                    largest = i;
+                }
+            }
+            selected[kept++] = largest;
+            previous = largest;
+        }
+
+        selected[kept++] = count - 1;
+        return kept;
+    }
+
+    /**
+     * Reduces a band (a low and high value for each sample) to one low and high per column, by
+     * splitting the range from the first to the last x value into {@code columns} equal columns and
+     * taking the lowest low and highest high in each. Columns without samples are skipped. If there
+     * are no more samples than columns, the samples are copied unchanged.
+     *
+     * @param xs Sample x values, in increasing order.
+     * @param outXs Receives the x of each column, the middle of its samples. The output arrays must
+     *              hold at least min(count, columns) values.
+     * @return The number of columns written.
+     */
+    static int minMaxPerColumn(double[] xs, double[] lows, double[] highs, int count, int columns,
+                               double[] outXs, double[] outLows, double[] outHighs) {
+        if (count <= columns) {
+            System.arraycopy(xs, 0, outXs, 0, count);
+            System.arraycopy(lows, 0, outLows, 0, count);
+            System.arraycopy(highs, 0, outHighs, 0, count);
+            return count;
+        }
+
+        double first = xs[0];
+        double columnWidth = (xs[count - 1] - first) / columns;
+        int written = 0;
+        int i = 0;
+        while (i < count) {
+            int column = Math.min((int) ((xs[i] - first) / columnWidth), columns - 1);
+            int start = i;
+            double low = lows[i], high = highs[i];
+            for (i++; i < count && Math.min((int) ((xs[i] - first) / columnWidth), columns - 1) == column; i++) {
+                low = Math.min(low, lows[i]);
+                high = Math.max(high, highs[i]);
+            }
+            outXs[written] = (xs[start] + xs[i - 1]) / 2;
+            outLows[written] = low;
+            outHighs[written] = high;
+            written++;
+        }
+        return written;
+    }
+}
@@ -1,13 +1,14 @@
 package comp127.weather.widgets;
 
-import comp127.weather.api.CurrentConditions;
 import comp127.weather.api.WeatherData;
+import Graphics.CanvasWindow;
 import Graphics.FontStyle;
 import Graphics.GraphicsGroup;
 import Graphics.GraphicsObject;
 import Graphics.GraphicsText;
 import Graphics.Image;
 import Graphics.Point;
+import Graphics.Tween;
 
 public class SunriseSunsetWidget implements WeatherWidget{
     private final double size;
@@ -17,7 +18,8 @@ public class SunriseSunsetWidget implements WeatherWidget{
     private GraphicsText setTime;
     private Image icon;
 
-    private double direction = -1;
+    private static final double RISE_SECONDS = 2.5;
+    private Tween sunMovement;
 
     public SunriseSunsetWidget(double size) {
         this.size = size;
@@ -42,19 +44,18 @@ public class SunriseSunsetWidget implements WeatherWidget{
         
     }
 
-    // This method animates the widget - the sun "rises" and "sets"
+    // This method animates the widget - the sun "rises" and "sets" once, taking the same time
+    // however often the mouse moves
     private void riseAndShine() {
-        double maxY = size * 0.7;
-        double minY = size * 0.2;
-        
-        if (icon.getY() < minY) {
-            direction = 1;
-        } else if (icon.getY() > maxY) {
-            direction = -1;
+        CanvasWindow canvas = group.getCanvas();
+        if (canvas == null || (sunMovement != null && sunMovement.isRunning())) {
+            return;
         }
-        double newY = icon.getY() + (direction * size / 300);
-        icon.setY(newY);
-        
+        double x = icon.getX();
+        double restingY = size * 0.7 - icon.getHeight() * 0.5;
+        sunMovement = Tween.move(icon, x, size * 0.2, RISE_SECONDS)
+            .then(Tween.move(icon, x, restingY, RISE_SECONDS));
+        canvas.play(sunMovement);
     }
 
     private void updateLayout() {
@@ -73,11 +74,14 @@ public class SunriseSunsetWidget implements WeatherWidget{
 
     @Override
     public void update(WeatherData data) {
-        CurrentConditions currentConditions = data.getCurrentConditions();
+        update(WeatherViewModel.of(data));
+    }
 
-        riseTime.setText("Sunrise: " + FormattingHelpers.time(currentConditions.getSunriseTime()));
+    @Override
+    public void update(WeatherViewModel model) {
+        riseTime.setText(model.getSunrise());
 
-        setTime.setText("Sunset: " + FormattingHelpers.time(currentConditions.getSunsetTime()));
+        setTime.setText(model.getSunset());
         
         updateLayout();        
     }
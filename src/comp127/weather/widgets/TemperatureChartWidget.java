@@ -0,0 +1,209 @@
+package comp127.weather.widgets;
+
+import comp127.weather.api.WeatherData;
+import Graphics.*;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * A widget that charts the forecast temperature over time as a line, inside a band showing the
+ * forecast minimum and maximum. Hovering over the chart shows the forecast nearest the mouse.
+ *
+ * Long series are reduced to about one point per pixel before drawing: the line with
+ * Largest-Triangle-Three-Buckets and the band with the min and max of each pixel column. The
+ * sample and vertex buffers are kept between updates, and the paths are rebuilt in place.
+ */
+public class TemperatureChartWidget implements WeatherWidget {
+    private static final Color
+        BAND_COLOR = new Color(255, 160, 64, 96),
+        LINE_COLOR = new Color(200, 60, 0);
+
+    private final double size;
+    private final double plotLeft, plotRight, plotTop, plotBottom;
+    private final int columns;
+    private GraphicsGroup group;
+
+    private GraphicsText title;
+    private GraphicsText highLabel;
+    private GraphicsText lowLabel;
+    private GraphicsText readout;
+    private Path band;
+    private Path line;
+
+    // Samples, in chronological order, shared with any other widget showing the same model
+    private int sampleCount;
+    private double[] times = new double[0];
+    private double[] temperatures = new double[0];
+
+    // Downsampling and vertex buffers, sized for one point per column
+    private final int[] selected;
+    private final double[] columnTimes, columnLows, columnHighs;
+    private final double[] lineVertices, bandVertices;
+
+    private double firstTime, lastTime, lowestTemperature, highestTemperature;
+
+    /**
+     * Creates a chart widget of dimensions size x size.
+     */
+    public TemperatureChartWidget(double size) {
+        this.size = size;
+        plotLeft = size * 0.12;
+        plotRight = size * 0.95;
+        plotTop = size * 0.2;
+        plotBottom = size * 0.85;
+        columns = Math.max(3, (int) (plotRight - plotLeft));
+
+        selected = new int[columns];
+        columnTimes = new double[columns];
+        columnLows = new double[columns];
+        columnHighs = new double[columns];
+        lineVertices = new double[columns * 2];
+        bandVertices = new double[columns * 4];
+
+        group = new GraphicsGroup();
+
+        band = new Path(List.of(), true);
+        band.setFillColor(BAND_COLOR);
+        band.setStroked(false);
+        group.add(band);
+
+        line = new Path(List.of(), false);
+        line.setStrokeColor(LINE_COLOR);
+        line.setStrokeWidth(Math.max(1, size * 0.005));
+        group.add(line);
+
+        title = new GraphicsText("Temperature forecast");
+        title.setFont(FontStyle.BOLD, size * 0.05);
+        group.add(title);
+
+        highLabel = new GraphicsText();
+        highLabel.setFont(FontStyle.PLAIN, size * 0.035);
+        highLabel.setFillColor(Color.GRAY);
+        group.add(highLabel);
+
+        lowLabel = new GraphicsText();
+        lowLabel.setFont(FontStyle.PLAIN, size * 0.035);
+        lowLabel.setFillColor(Color.GRAY);
+        group.add(lowLabel);
+
+        readout = new GraphicsText();
+        readout.setFont(FontStyle.PLAIN, size * 0.04);
+        group.add(readout);
+
+        updateLayout();
+    }
+
+    @Override
+    public GraphicsObject getGraphics() {
+        return group;
+    }
+
+    @Override
+    public void update(WeatherData data) {
+        update(WeatherViewModel.of(data));
+    }
+
+    @Override
+    public void update(WeatherViewModel model) {
+        WeatherViewModel.TemperatureSeries series = model.getTemperatureSeries();
+        sampleCount = series.count;
+        times = series.times;
+        temperatures = series.temperatures;
+        double[] lows = series.lows, highs = series.highs;
+        lowestTemperature = series.lowest;
+        highestTemperature = series.highest;
+
+        if (sampleCount == 0) {
+            line.setVertices(lineVertices, 0, false);
+            band.setVertices(bandVertices, 0, true);
+            highLabel.setText("-");
+            lowLabel.setText("-");
+            readout.setText("");
+            updateLayout();
+            return;
+        }
+        firstTime = times[0];
+        lastTime = times[sampleCount - 1];
+
+        int lineCount = SeriesDownsampler.largestTriangleThreeBuckets(
+            times, temperatures, sampleCount, columns, selected);
+        for (int i = 0; i < lineCount; i++) {
+            lineVertices[i * 2] = xForTime(times[selected[i]]);
+            lineVertices[i * 2 + 1] = yForTemperature(temperatures[selected[i]]);
+        }
+        line.setVertices(lineVertices, lineCount, false);
+
+        // The band runs left to right along the highs, then back along the lows
+        int columnCount = SeriesDownsampler.minMaxPerColumn(
+            times, lows, highs, sampleCount, columns, columnTimes, columnLows, columnHighs);
+        for (int i = 0; i < columnCount; i++) {
+            double x = xForTime(columnTimes[i]);
+            int upper = i * 2, lower = (columnCount * 2 - 1 - i) * 2;
+            bandVertices[upper] = x;
+            bandVertices[upper + 1] = yForTemperature(columnHighs[i]);
+            bandVertices[lower] = x;
+            bandVertices[lower + 1] = yForTemperature(columnLows[i]);
+        }
+        band.setVertices(bandVertices, columnCount * 2, true);
+
+        highLabel.setText(FormattingHelpers.roundOff(highestTemperature) + "\u2109");
+        lowLabel.setText(FormattingHelpers.roundOff(lowestTemperature) + "\u2109");
+        showSample(0);
+    }
+
+    private double xForTime(double time) {
+        if (lastTime == firstTime) {
+            return (plotLeft + plotRight) / 2;
+        }
+        return plotLeft + (time - firstTime) / (lastTime - firstTime) * (plotRight - plotLeft);
+    }
+
+    private double yForTemperature(double temperature) {
+        if (highestTemperature == lowestTemperature) {
+            return (plotTop + plotBottom) / 2;
+        }
+        return plotBottom
+            - (temperature - lowestTemperature) / (highestTemperature - lowestTemperature)
+                * (plotBottom - plotTop);
+    }
+
+    private void showSample(int index) {
+        Date time = new Date((long) times[index]);
+        readout.setText(
+            FormattingHelpers.dayDate(time) + " " + FormattingHelpers.time(time) + ": "
+                + FormattingHelpers.roundOff(temperatures[index]) + "\u2109");
+        updateLayout();
+    }
+
+    private void updateLayout() {
+        title.setCenter(size * 0.5, size * 0.07);
+
+        readout.setCenter(size * 0.5, size * 0.14);
+
+        highLabel.setPosition(size * 0.01, plotTop + highLabel.getHeight() * 0.5);
+
+        lowLabel.setPosition(size * 0.01, plotBottom);
+    }
+
+    /**
+     * Shows the forecast nearest to the mouse’s position along the time axis.
+     */
+    @Override
+    public void onHover(Point position) {
+        if (sampleCount == 0 || position.getX() < plotLeft || position.getX() > plotRight) {
+            return;
+        }
+        double time = firstTime
+            + (position.getX() - plotLeft) / (plotRight - plotLeft) * (lastTime - firstTime);
+        int index = Arrays.binarySearch(times, 0, sampleCount, time);
+        if (index < 0) {
+            int after = Math.min(-index - 1, sampleCount - 1);
+            int before = Math.max(after - 1, 0);
+            index = (time - times[before] <= times[after] - time) ? before : after;
+        }
+        showSample(index);
+    }
+}
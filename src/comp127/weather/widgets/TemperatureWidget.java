@@ -1,6 +1,5 @@
 package comp127.weather.widgets;
 
-import comp127.weather.api.CurrentConditions;
 import comp127.weather.api.WeatherData;
 import Graphics.*;
 
@@ -46,16 +45,17 @@ public class TemperatureWidget implements WeatherWidget {
 
     @Override
     public void update(WeatherData data) {
-        CurrentConditions currentConditions = data.getCurrentConditions();
+        update(WeatherViewModel.of(data));
+    }
 
-        icon.setImagePath(currentConditions.getWeatherIcon());
+    @Override
+    public void update(WeatherViewModel model) {
+        icon.setImagePath(model.getIcon());
         icon.setScale(size/icon.getImageWidth()/3);
 
-        label.setText(
-            FormattingHelpers.roundOff(currentConditions.getTemperature())
-             + "\u2109");  // degree symbol
+        label.setText(model.getTemperature());
 
-        description.setText(currentConditions.getWeatherDescription());
+        description.setText(model.getDescription());
 
         // Once we’ve updated the visuals, we may need to recenter or respace things:
         updateLayout();
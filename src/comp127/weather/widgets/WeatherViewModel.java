@@ -0,0 +1,266 @@
+package comp127.weather.widgets;
+
+import comp127.weather.api.CompassRose;
+import comp127.weather.api.CurrentConditions;
+import comp127.weather.api.ForecastConditions;
+import comp127.weather.api.WeatherData;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Everything the widgets show for one WeatherData, formatted once. The text, icon paths and
+ * derived values here do not depend on a widget's size, so when the same data is shown by several
+ * widgets (a small and a large copy of each, say), they all read from one view model instead of
+ * each formatting the data again. Only laying out the graphics is left for each widget.
+ *
+ * Per-forecast text and the temperature series are built the first time a widget asks for them.
+ */
+public class WeatherViewModel {
+    private static final CompassRose COMPASS = CompassRose.SIXTEEN_POINT;
+
+    /**
+     * The direction label for each compass point, built once so updates don't concatenate.
+     */
+    private static final String[] DIRECTION_LABELS =
+        IntStream.range(0, COMPASS.getPoints())
+            .mapToObj(point -> "Wind direction: " + COMPASS.nameAt(point))
+            .toArray(String[]::new);
+    private static final String UNKNOWN_DIRECTION_LABEL = "Wind direction: -";
+
+    private static WeatherViewModel mostRecent;
+
+    private final WeatherData data;
+
+    private final String temperature, description, icon;
+    private final String windSpeed, windDirection;
+    private final Double windAngle;
+    private final Double humidity;
+    private final String humidityText;
+    private final String sunrise, sunset;
+
+    private final List<ForecastConditions> forecasts;
+    private final Forecast[] forecastViews;
+    private TemperatureSeries temperatureSeries;
+
+    /**
+     * Formats the given data.
+     */
+    public WeatherViewModel(WeatherData data) {
+        this.data = data;
+        CurrentConditions current = data.getCurrentConditions();
+
+        temperature = FormattingHelpers.roundOff(current.getTemperature()) + "\u2109";
+        description = current.getWeatherDescription();
+        icon = current.getWeatherIcon();
+
+        windSpeed = FormattingHelpers.roundOff(current.getWindSpeed());
+        Double degrees = current.getWindDirectionInDegrees();
+        int point = (degrees != null) ? COMPASS.indexOf(degrees) : -1;
+        windDirection = (point >= 0) ? DIRECTION_LABELS[point] : UNKNOWN_DIRECTION_LABEL;
+        windAngle = (degrees != null) ? Math.toRadians(degrees) : null;
+
+        humidity = current.getHumidity();
+        humidityText = "Humidity: " + FormattingHelpers.roundOff(humidity) + "%";
+
+        sunrise = "Sunrise: " + FormattingHelpers.time(current.getSunriseTime());
+        sunset = "Sunset: " + FormattingHelpers.time(current.getSunsetTime());
+
+        forecasts = data.getForecasts();
+        forecastViews = new Forecast[forecasts.size()];
+    }
+
+    /**
+     * Returns a view model of the given data, reusing the last one created by this method if it
+     * was for the same data. This lets widgets that are handed a WeatherData share the formatting
+     * work even when their caller doesn't create a view model itself.
+     */
+    public static synchronized WeatherViewModel of(WeatherData data) {
+        if (mostRecent == null || mostRecent.data != data) {
+            mostRecent = new WeatherViewModel(data);
+        }
+        return mostRecent;
+    }
+
+    public WeatherData getData() {
+        return data;
+    }
+
+    /**
+     * The current temperature, e.g. "72.3℉".
+     */
+    public String getTemperature() {
+        return temperature;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * The path of the icon for the current conditions, relative to res/.
+     */
+    public String getIcon() {
+        return icon;
+    }
+
+    public String getWindSpeed() {
+        return windSpeed;
+    }
+
+    /**
+     * E.g. "Wind direction: NNW".
+     */
+    public String getWindDirection() {
+        return windDirection;
+    }
+
+    /**
+     * The direction the wind is coming from in radians clockwise from north, or null if unknown.
+     */
+    public Double getWindAngle() {
+        return windAngle;
+    }
+
+    public Double getHumidity() {
+        return humidity;
+    }
+
+    /**
+     * E.g. "Humidity: 45.0%".
+     */
+    public String getHumidityText() {
+        return humidityText;
+    }
+
+    /**
+     * E.g. "Sunrise: 6:47 AM".
+     */
+    public String getSunrise() {
+        return sunrise;
+    }
+
+    /**
+     * E.g. "Sunset: 7:12 PM".
+     */
+    public String getSunset() {
+        return sunset;
+    }
+
+    public List<ForecastConditions> getForecasts() {
+        return forecasts;
+    }
+
+    /**
+     * Returns the formatted text for one forecast.
+     */
+    public synchronized Forecast getForecast(int index) {
+        if (forecastViews[index] == null) {
+            forecastViews[index] = new Forecast(forecasts.get(index));
+        }
+        return forecastViews[index];
+    }
+
+    synchronized TemperatureSeries getTemperatureSeries() {
+        if (temperatureSeries == null) {
+            temperatureSeries = new TemperatureSeries(forecasts);
+        }
+        return temperatureSeries;
+    }
+
+    /**
+     * The formatted text for one forecast.
+     */
+    public static class Forecast {
+        private final ForecastConditions conditions;
+        private final String icon, day, time, temperature, lowAndHigh, description;
+
+        Forecast(ForecastConditions conditions) {
+            this.conditions = conditions;
+            icon = conditions.getWeatherIcon();
+            day = FormattingHelpers.dayDate(conditions.getPredictionTime());
+            time = FormattingHelpers.time(conditions.getPredictionTime());
+            temperature = FormattingHelpers.roundOff(conditions.getTemperature()) + "\u2109";
+            lowAndHigh = FormattingHelpers.roundOff(conditions.getMinTemperature()) + "\u2109"
+                + " | " + FormattingHelpers.roundOff(conditions.getMaxTemperature()) + "\u2109";
+            description = conditions.getWeatherDescription();
+        }
+
+        public ForecastConditions getConditions() {
+            return conditions;
+        }
+
+        public String getIcon() {
+            return icon;
+        }
+
+        /**
+         * E.g. "Mon, Oct 14".
+         */
+        public String getDay() {
+            return day;
+        }
+
+        /**
+         * E.g. "1:00 PM".
+         */
+        public String getTime() {
+            return time;
+        }
+
+        public String getTemperature() {
+            return temperature;
+        }
+
+        /**
+         * E.g. "61.0℉ | 68.4℉".
+         */
+        public String getLowAndHigh() {
+            return lowAndHigh;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+    }
+
+    /**
+     * The forecasts that have both a time and a temperature, as arrays for charting, in
+     * chronological order. Each low is at most the temperature and each high at least it. Widgets
+     * must not modify the arrays.
+     */
+    static class TemperatureSeries {
+        final int count;
+        final double[] times, temperatures, lows, highs;
+        final double lowest, highest;
+
+        TemperatureSeries(List<ForecastConditions> forecasts) {
+            times = new double[forecasts.size()];
+            temperatures = new double[forecasts.size()];
+            lows = new double[forecasts.size()];
+            highs = new double[forecasts.size()];
+
+            int count = 0;
+            double lowest = Double.POSITIVE_INFINITY, highest = Double.NEGATIVE_INFINITY;
+            for (ForecastConditions forecast : forecasts) {
+                Date time = forecast.getPredictionTime();
+                Double temperature = forecast.getTemperature();
+                if (time == null || temperature == null) {
+                    continue;
+                }
+                Double low = forecast.getMinTemperature(), high = forecast.getMaxTemperature();
+                times[count] = time.getTime();
+                temperatures[count] = temperature;
+                lows[count] = Math.min(temperature, low != null ? low : temperature);
+                highs[count] = Math.max(temperature, high != null ? high : temperature);
+                lowest = Math.min(lowest, lows[count]);
+                highest = Math.max(highest, highs[count]);
+                count++;
+            }
+            this.count = count;
+            this.lowest = lowest;
+            this.highest = highest;
+        }
+    }
+}
@@ -20,6 +20,15 @@ public interface WeatherWidget {
      */
     void update(WeatherData data);
 
+    /**
+     * Displays the given view model. When several widgets show the same data, updating them all
+     * from one view model means the data is only formatted once. Widgets that don’t override this
+     * get the underlying WeatherData instead.
+     */
+    default void update(WeatherViewModel model) {
+        update(model.getData());
+    }
+
     /**
      * Called when the mouse moves over the widget.
      *
@@ -1,6 +1,5 @@
 package comp127.weather.widgets;
 
-import comp127.weather.api.CurrentConditions;
 import comp127.weather.api.WeatherData;
 import Graphics.Ellipse;
 import Graphics.FontStyle;
@@ -62,8 +61,16 @@ public class WindWidget implements WeatherWidget {
         north.setCenter(size * 0.5, size * 0.3);
 
         if (angle != null) {
-            directionLine.setStartPosition(start.rotate(angle, center));
-            directionLine.setEndPosition(end.rotate(angle, center));
+            // Same as Point.rotate(angle, center), without the intermediate Points
+            double cos = Math.cos(angle), sin = Math.sin(angle);
+            double startX = start.getX() - center.getX(), startY = start.getY() - center.getY();
+            double endX = end.getX() - center.getX(), endY = end.getY() - center.getY();
+            directionLine.setStartPosition(
+                startX * cos - startY * sin + center.getX(),
+                startX * sin + startY * cos + center.getY());
+            directionLine.setEndPosition(
+                endX * cos - endY * sin + center.getX(),
+                endX * sin + endY * cos + center.getY());
         } else {
             directionLine.setStartPosition(0, 0);
             directionLine.setEndPosition(0, 0);
@@ -77,13 +84,16 @@ public class WindWidget implements WeatherWidget {
 
     @Override
     public void update(WeatherData data) {
-        CurrentConditions currentConditions = data.getCurrentConditions();
+        update(WeatherViewModel.of(data));
+    }
 
-        speed.setText(FormattingHelpers.roundOff(currentConditions.getWindSpeed()));
+    @Override
+    public void update(WeatherViewModel model) {
+        speed.setText(model.getWindSpeed());
 
-        labelDirection.setText("Wind direction: " + currentConditions.getWindDirectionAsString());
+        labelDirection.setText(model.getWindDirection());
 
-        angle = Math.toRadians(currentConditions.getWindDirectionInDegrees());
+        angle = model.getWindAngle();
 
         updateLayout();
     }
@@ -0,0 +1,89 @@
+package Graphics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Checks that AnimationTimer never loses a wake-up. Another thread posts a piece of work and
+ * calls wake(), thousands of times, at moments chosen so that some wake-ups find the timer
+ * parked and others arrive while its callback runs. The callback picks up the work posted before
+ * it started and then reports that it is idle. Every piece of work must be picked up promptly.
+ * Once everything is done, the timer must stay parked and use next to no CPU. Exits with an error
+ * otherwise.
+ * <p>
+ * Arguments: the number of wake-ups (default 6000).
+ */
+public class AnimationTimerStressTest {
+    private static final long WAKE_TIMEOUT_MS = 2000, IDLE_MS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        // The timer thread never exits on its own, so leave explicitly, failing or not
+        try {
+            check(args.length > 0 ? Integer.parseInt(args[0]) : 6000);
+        } catch (Throwable e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private static void check(int wakes) throws Exception {
+        AtomicInteger posted = new AtomicInteger(), handled = new AtomicInteger();
+        AtomicLong frames = new AtomicLong();
+        Thread[] timerThread = new Thread[1];
+        Random random = new Random(127);
+
+        AnimationTimer timer = new AnimationTimer(1, dt -> {
+            timerThread[0] = Thread.currentThread();
+            frames.incrementAndGet();
+            int work = posted.get();
+            spin(20_000);  // widen the window for a wake() during the callback
+            handled.set(work);
+            return false;
+        });
+
+        // In pairs: the first wake-up usually finds the timer parked, and the second comes at a
+        // random moment in the frame that the first started. Each pair must be handled before the
+        // next, or a later wake-up would hide a lost one.
+        for (int i = 2; i <= wakes; i += 2) {
+            posted.set(i - 1);
+            timer.wake();
+            spin(random.nextInt(40_000));
+            posted.set(i);
+            timer.wake();
+
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WAKE_TIMEOUT_MS);
+            while (handled.get() < i) {
+                if (System.nanoTime() > deadline) {
+                    throw new AssertionError("Wake-up " + i + " was lost: the timer only handled "
+                        + handled.get() + " after " + WAKE_TIMEOUT_MS + " ms");
+                }
+                Thread.sleep(0, 100_000);
+            }
+        }
+        long framesWhenDone = frames.get();
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long cpuBefore = threads.getThreadCpuTime(timerThread[0].getId());
+        Thread.sleep(IDLE_MS);
+        double idleCpuMs = (threads.getThreadCpuTime(timerThread[0].getId()) - cpuBefore) / 1e6;
+        long idleFrames = frames.get() - framesWhenDone;
+
+        System.out.printf("%d wake-ups, %d frames, none lost%n", wakes, framesWhenDone);
+        System.out.printf("Idle for %d ms: %d frames, %.2f ms of timer CPU%n", IDLE_MS, idleFrames, idleCpuMs);
+        if (idleFrames > 1 || idleCpuMs > 5) {
+            throw new AssertionError("The timer kept running after it reported no more work");
+        }
+    }
+
+    private static void spin(int nanos) {
+        long until = System.nanoTime() + nanos;
+        while (System.nanoTime() < until) {
+            Thread.onSpinWait();
+        }
+    }
+}
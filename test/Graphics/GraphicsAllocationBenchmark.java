@@ -0,0 +1,81 @@
+package Graphics;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Profiles what hovering and laying out a nested scene allocate, as counted by the JVM for the
+ * current thread: hit-testing through groups as the mouse moves, and moving shapes and line
+ * endpoints, which notifies every ancestor group. Fails if either allocates more than a few small
+ * objects per call. Run with -XX:-DoEscapeAnalysis to see the allocations the JIT would otherwise
+ * hide.
+ * <p>
+ * Arguments: the number of calls to measure (default 200000).
+ */
+public class GraphicsAllocationBenchmark {
+    /**
+     * Hovering should allocate nothing. Layout still creates a few small objects, such as the
+     * bounds that setCenter() measures, but nothing per ancestor.
+     */
+    private static final double MAX_HOVER_BYTES = 64, MAX_LAYOUT_BYTES = 512;
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) {
+        int calls = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        // A dashboard-like scene: groups three deep, each with a few shapes
+        GraphicsGroup scene = new GraphicsGroup();
+        GraphicsGroup panel = new GraphicsGroup(20, 20);
+        GraphicsGroup widget = new GraphicsGroup(10, 10);
+        scene.add(panel);
+        panel.add(widget);
+        for (int i = 0; i < 8; i++) {
+            scene.add(new Rectangle(300 + i * 30, 10, 20, 20));
+            panel.add(new Ellipse(200, i * 30, 20, 20));
+        }
+        Rectangle box = new Rectangle(0, 0, 50, 50);
+        Line arrow = new Line(0, 0, 40, 0);
+        widget.add(box);
+        widget.add(arrow);
+        widget.setRotation(15);
+
+        double hover = bytesPerCall(calls, i -> scene.getElementAtLocalCoordinates(30 + (i & 63), 30 + (i & 31)));
+        double layout = bytesPerCall(calls, i -> {
+            box.setPosition(i & 15, i & 7);
+            box.moveBy(0.5, 0.5);
+            box.setCenter(25, 25);
+            arrow.setStartPosition(i & 3, 0);
+            arrow.setEndPosition(40, i & 3);
+            return box;
+        });
+
+        System.out.printf("Bytes allocated per call:%n");
+        System.out.printf("  hover (hit test through three groups): %6.0f%n", hover);
+        System.out.printf("  layout (move, center, line endpoints): %6.0f%n", layout);
+        if (hover > MAX_HOVER_BYTES || layout > MAX_LAYOUT_BYTES) {
+            throw new AssertionError("Hover or layout allocated more than " + MAX_HOVER_BYTES
+                + " or " + MAX_LAYOUT_BYTES + " bytes per call");
+        }
+    }
+
+    private interface Call {
+        Object run(int i);
+    }
+
+    /**
+     * Runs a warm-up, then returns the bytes allocated per call.
+     */
+    private static double bytesPerCall(int calls, Call call) {
+        for (int i = 0; i < calls; i++) {
+            sink = call.run(i);
+        }
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < calls; i++) {
+            sink = call.run(i);
+        }
+        return (threads.getThreadAllocatedBytes(thread) - before) / (double) calls;
+    }
+}
@@ -0,0 +1,46 @@
+package Graphics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that observers changing the observer list while being notified don’t disturb the rest of
+ * that notification: an observer that removes itself doesn’t cause the next one to be skipped,
+ * and one added mid-notification is first notified of the next change. Exits with an error if not.
+ */
+public class GraphicsObserverCheck {
+    public static void main(String[] args) {
+        Rectangle shape = new Rectangle(0, 0, 10, 10);
+        List<String> notified = new ArrayList<>();
+        GraphicsObserver late = changed -> notified.add("late");
+        GraphicsObserver once = new GraphicsObserver() {
+            @Override
+            public void graphicChanged(GraphicsObject changed) {
+                notified.add("once");
+                changed.removeObserver(this);
+                changed.addObserver(late);
+            }
+        };
+        shape.addObserver(once);
+        shape.addObserver(changed -> notified.add("second"));
+        shape.addObserver(changed -> notified.add("third"));
+
+        shape.moveBy(1, 1);
+        expect(List.of("once", "second", "third"), notified, "first change");
+        notified.clear();
+        shape.moveBy(1, 1);
+        expect(List.of("second", "third", "late"), notified, "second change");
+
+        shape.removeObserver(late);
+        notified.clear();
+        shape.moveBy(1, 1);
+        expect(List.of("second", "third"), notified, "after removing an observer");
+        System.out.println("Observers notified as expected");
+    }
+
+    private static void expect(List<String> expected, List<String> actual, String context) {
+        if (!expected.equals(actual)) {
+            throw new AssertionError(context + ": notified " + actual + ", expected " + expected);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package Graphics;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.Field;
+
+/**
+ * Checks that text measures the same before and after it is first drawn, whatever the transform
+ * and rendering hints it is drawn with, that drawing it scaled or rotated frame after frame keeps
+ * sharing one laid-out shape between texts, and that the scaled drawing lands where the bounds
+ * say. Exits with an error otherwise.
+ */
+public class GraphicsTextLayoutCheck {
+    private static final double SCALE = 2.5;
+
+    public static void main(String[] args) throws Exception {
+        GraphicsText label = new GraphicsText("Partly cloudy, 12.5°", 20, 40);
+        label.setFontSize(18);
+        Rectangle2D before = label.getBounds();
+        Object shape = textShape(label);
+        int[] changes = new int[1];
+        label.addObserver(changed -> changes[0]++);
+
+        // An animated scale and rotation, with hints that change the font render context
+        for (int frame = 0; frame < 60; frame++) {
+            BufferedImage image = new BufferedImage(40, 40, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D gc = image.createGraphics();
+            gc.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, frame % 2 == 0
+                ? RenderingHints.VALUE_TEXT_ANTIALIAS_ON : RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+            gc.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+            gc.scale(1 + frame / 30.0, 1 + frame / 30.0);
+            gc.rotate(Math.toRadians(frame));
+            label.draw(gc);
+            gc.dispose();
+            if (!label.getBounds().equals(before) || textShape(label) != shape) {
+                throw new AssertionError("Frame " + frame + " laid the text out again: bounds "
+                    + label.getBounds() + ", before drawing " + before);
+            }
+        }
+        if (changes[0] != 0) {
+            throw new AssertionError("Drawing notified observers " + changes[0] + " times");
+        }
+
+        GraphicsText twin = new GraphicsText("Partly cloudy, 12.5°");
+        twin.setFontSize(18);
+        if (!twin.getBounds().equals(before) || textShape(twin) != shape) {
+            throw new AssertionError("Another text with the same contents did not share the shape");
+        }
+
+        // Scaled 2.5×, the ink should cover the bounds scaled 2.5×, give or take antialiasing
+        int width = (int) Math.ceil((label.getX() + before.getMaxX()) * SCALE) + 10;
+        int height = (int) Math.ceil((label.getY() + before.getMaxY()) * SCALE) + 10;
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D gc = image.createGraphics();
+        gc.scale(SCALE, SCALE);
+        label.setFillColor(Color.BLACK);
+        label.draw(gc);
+        gc.dispose();
+        Rectangle2D ink = inkBounds(image);
+        Rectangle2D expected = new Rectangle2D.Double(
+            (label.getX() + before.getX()) * SCALE, (label.getY() + before.getY()) * SCALE,
+            before.getWidth() * SCALE, before.getHeight() * SCALE);
+        double tolerance = 2 * SCALE;
+        if (Math.abs(ink.getMinX() - expected.getMinX()) > tolerance
+            || Math.abs(ink.getMinY() - expected.getMinY()) > tolerance
+            || Math.abs(ink.getMaxX() - expected.getMaxX()) > tolerance
+            || Math.abs(ink.getMaxY() - expected.getMaxY()) > tolerance) {
+            throw new AssertionError("Text drawn at " + SCALE + "× covers " + ink + ", expected " + expected);
+        }
+        System.out.println("Bounds " + before + " held through 60 transformed frames; scaled ink matches");
+    }
+
+    private static Object textShape(GraphicsText text) throws ReflectiveOperationException {
+        text.getBounds();
+        Field field = GraphicsText.class.getDeclaredField("textShape");
+        field.setAccessible(true);
+        return field.get(text);
+    }
+
+    private static Rectangle2D inkBounds(BufferedImage image) {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = -1, maxY = -1;
+        for (int y = 0; y < image.getHeight(); y++) {
+            for (int x = 0; x < image.getWidth(); x++) {
+                if ((image.getRGB(x, y) >>> 24) > 0x40) {
+                    minX = Math.min(minX, x);
+                    minY = Math.min(minY, y);
+                    maxX = Math.max(maxX, x + 1);
+                    maxY = Math.max(maxY, y + 1);
+                }
+            }
+        }
+        return new Rectangle2D.Double(minX, minY, maxX - minX, maxY - minY);
+    }
+}
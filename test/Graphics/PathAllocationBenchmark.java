@@ -0,0 +1,98 @@
+package Graphics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Profiles what a Path allocates per frame when an animated chart updates all of its vertices,
+ * through each way of changing them, as counted by the JVM for the current thread. Fails if the
+ * buffer-reusing ways allocate more than a few objects per frame, however many vertices there are.
+ * <p>
+ * Arguments: the number of vertices (default 500) and of frames (default 20000).
+ */
+public class PathAllocationBenchmark {
+    /**
+     * What setVertex() + commitVertices() and the array overloads may allocate per frame: a few
+     * small objects, and nothing that grows with the number of vertices.
+     */
+    private static final double MAX_BYTES_PER_FRAME = 256;
+
+    private static volatile Object sink;
+
+    public static void main(String[] args) {
+        int vertices = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int frames = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+        double[] doubles = new double[vertices * 2];
+        float[] floats = new float[vertices * 2];
+        Path path = new Path(points(vertices, 0), false);
+
+        double setVertex = bytesPerFrame(frames, frame -> {
+            for (int i = 0; i < vertices; i++) {
+                path.setVertex(i, i, height(i, frame));
+            }
+            path.commitVertices();
+        });
+        double doubleArray = bytesPerFrame(frames, frame -> {
+            for (int i = 0; i < vertices; i++) {
+                doubles[i * 2] = i;
+                doubles[i * 2 + 1] = height(i, frame);
+            }
+            path.setVertices(doubles, vertices, false);
+        });
+        double floatArray = bytesPerFrame(frames, frame -> {
+            for (int i = 0; i < vertices; i++) {
+                floats[i * 2] = i;
+                floats[i * 2 + 1] = (float) height(i, frame);
+            }
+            path.setVertices(floats, vertices, false);
+        });
+        double pointList = bytesPerFrame(frames / 10, frame -> path.setVertices(points(vertices, frame), false));
+
+        System.out.printf("%d vertices, bytes allocated per frame:%n", vertices);
+        System.out.printf("  setVertex + commitVertices: %8.0f%n", setVertex);
+        System.out.printf("  setVertices(double[]):      %8.0f%n", doubleArray);
+        System.out.printf("  setVertices(float[]):       %8.0f%n", floatArray);
+        System.out.printf("  setVertices(List<Point>):   %8.0f (including the Points)%n", pointList);
+        sink = path;
+
+        if (Math.max(setVertex, Math.max(doubleArray, floatArray)) > MAX_BYTES_PER_FRAME) {
+            throw new AssertionError("Updating vertices in place allocated more than "
+                + MAX_BYTES_PER_FRAME + " bytes per frame");
+        }
+    }
+
+    private interface Frame {
+        void draw(int frame);
+    }
+
+    /**
+     * Runs a warm-up, then returns the bytes allocated per frame.
+     */
+    private static double bytesPerFrame(int frames, Frame frame) {
+        for (int i = 0; i < frames; i++) {
+            frame.draw(i);
+        }
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < frames; i++) {
+            frame.draw(i);
+        }
+        return (threads.getThreadAllocatedBytes(thread) - before) / (double) frames;
+    }
+
+    private static double height(int vertex, int frame) {
+        return 100 + 50 * Math.sin((vertex + frame) * 0.05);
+    }
+
+    private static List<Point> points(int vertices, int frame) {
+        List<Point> points = new ArrayList<>(vertices);
+        for (int i = 0; i < vertices; i++) {
+            points.add(new Point(i, height(i, frame)));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,166 @@
+package Graphics;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that a Path’s vertices follow it when it moves: after setPosition() or moveBy(),
+ * getVertexX/Y report the moved coordinates, and editing one vertex with setVertex() leaves the
+ * others where the move put them instead of snapping the path back. Until commitVertices(), the
+ * path must draw, hit-test and measure as it was at the last commit, and drawing it must neither
+ * move it nor notify its observers. Random paths are moved and edited, and each result is compared
+ * with a new Path built from the expected points. Exits with an error on the first difference.
+ * <p>
+ * Arguments: the number of random paths (default 2000).
+ */
+public class PathVertexCheck {
+    private static final double TOLERANCE = 1e-3;
+
+    public static void main(String[] args) {
+        int paths = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+        // The case from the review: move, then edit one vertex
+        Path triangle = Path.makeTriangle(10, 10, 30, 10, 20, 40);
+        triangle.moveBy(100, 50);
+        double[] moved = { 110, 60, 130, 60, 120, 90 };
+        expect(triangle, moved, moved, "after moveBy");
+        triangle.setVertex(1, 140, 55);
+        triangle.commitVertices();
+        double[] edited = { 110, 60, 140, 55, 120, 90 };
+        expect(triangle, edited, edited, "after moveBy and setVertex");
+        triangle.setPosition(0, 0);
+        triangle.setVertex(2, 10, 50);
+        expect(triangle, new double[] { 0, 5, 30, 0, 10, 50 }, new double[] { 0, 5, 30, 0, 10, 35 },
+            "after setPosition and an uncommitted setVertex");
+
+        checkDrawing();
+
+        Random random = new Random(127);
+        for (int n = 0; n < paths; n++) {
+            int count = 1 + random.nextInt(12);
+            double[] expected = new double[count * 2];
+            List<Point> points = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                expected[i * 2] = random.nextInt(2000) / 4.0 - 250;
+                expected[i * 2 + 1] = random.nextInt(2000) / 4.0 - 250;
+                points.add(new Point(expected[i * 2], expected[i * 2 + 1]));
+            }
+            Path path = new Path(points, random.nextBoolean());
+            double[] committed = expected.clone();
+
+            for (int step = 0; step < 6; step++) {
+                if (random.nextBoolean()) {
+                    double dx = random.nextInt(400) / 8.0 - 25, dy = random.nextInt(400) / 8.0 - 25;
+                    if (random.nextBoolean()) {
+                        path.moveBy(dx, dy);
+                    } else {
+                        path.setPosition(path.getX() + dx, path.getY() + dy);
+                    }
+                    for (int i = 0; i < count * 2; i += 2) {
+                        expected[i] += dx;
+                        expected[i + 1] += dy;
+                        committed[i] += dx;
+                        committed[i + 1] += dy;
+                    }
+                } else {
+                    int edits = 1 + random.nextInt(count);
+                    for (int e = 0; e < edits; e++) {
+                        int i = random.nextInt(count);
+                        expected[i * 2] = random.nextInt(2000) / 4.0 - 250;
+                        expected[i * 2 + 1] = random.nextInt(2000) / 4.0 - 250;
+                        path.setVertex(i, expected[i * 2], expected[i * 2 + 1]);
+                    }
+                    if (random.nextBoolean()) {
+                        path.commitVertices();
+                        committed = expected.clone();
+                    }
+                }
+                expect(path, expected, committed, "random path " + n + ", step " + step);
+            }
+        }
+        System.out.println("Moved and edited " + paths + " random paths; all matched");
+    }
+
+    /**
+     * The case from the review: every vertex moves by −8 without a commit. Each frame must show
+     * the committed square, and only commitVertices() may move the path and notify observers.
+     */
+    private static void checkDrawing() {
+        Path square = new Path(List.of(new Point(11, 11), new Point(40, 11), new Point(40, 40), new Point(11, 40)));
+        square.setFillColor(Color.BLACK);
+        square.setStroked(false);
+        int[] changes = new int[1];
+        square.addObserver(changed -> changes[0]++);
+
+        for (int i = 0; i < 4; i++) {
+            square.setVertex(i, square.getVertexX(i) - 8, square.getVertexY(i) - 8);
+        }
+        for (int frame = 0; frame < 2; frame++) {
+            BufferedImage image = render(square);
+            if (image.getRGB(25, 25) != Color.BLACK.getRGB() || image.getRGB(5, 5) == Color.BLACK.getRGB()
+                || square.getX() != 11 || changes[0] != 0) {
+                throw new AssertionError("Frame " + frame + " before the commit should show the committed square,"
+                    + " unmoved and without notifying observers");
+            }
+        }
+        square.commitVertices();
+        BufferedImage image = render(square);
+        if (image.getRGB(5, 5) != Color.BLACK.getRGB() || image.getRGB(35, 35) == Color.BLACK.getRGB()
+            || square.getX() != 3 || changes[0] == 0) {
+            throw new AssertionError("The first frame after the commit should show the moved square");
+        }
+    }
+
+    private static BufferedImage render(Path path) {
+        BufferedImage image = new BufferedImage(60, 60, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D gc = image.createGraphics();
+        path.draw(gc);
+        gc.dispose();
+        return image;
+    }
+
+    /**
+     * Checks the path’s vertices against the expected ones, and its bounds and hit tests against a
+     * path built afresh from the committed ones. Moving a path may leave it at a fractional
+     * position, so the bounds are compared in the container’s coordinates.
+     */
+    private static void expect(Path path, double[] expected, double[] committed, String context) {
+        for (int i = 0; i < expected.length / 2; i++) {
+            if (Math.abs(path.getVertexX(i) - expected[i * 2]) > TOLERANCE
+                || Math.abs(path.getVertexY(i) - expected[i * 2 + 1]) > TOLERANCE) {
+                throw new AssertionError(context + ": vertex " + i + " at (" + path.getVertexX(i) + ", "
+                    + path.getVertexY(i) + "), expected (" + expected[i * 2] + ", " + expected[i * 2 + 1] + ")");
+            }
+        }
+        Path fresh = new Path(toPoints(committed), path.isClosed());
+        double width = path.getBounds().getWidth(), height = path.getBounds().getHeight();
+        if (Math.abs(width - fresh.getBounds().getWidth()) > TOLERANCE
+            || Math.abs(height - fresh.getBounds().getHeight()) > TOLERANCE) {
+            throw new AssertionError(context + ": size " + width + "×" + height + ", expected "
+                + fresh.getBounds().getWidth() + "×" + fresh.getBounds().getHeight());
+        }
+        double left = path.getX() + path.getBounds().getMinX(), top = path.getY() + path.getBounds().getMinY();
+        double freshLeft = fresh.getX() + fresh.getBounds().getMinX(), freshTop = fresh.getY() + fresh.getBounds().getMinY();
+        if (Math.abs(left - freshLeft) > TOLERANCE || Math.abs(top - freshTop) > TOLERANCE) {
+            throw new AssertionError(context + ": bounds at (" + left + ", " + top
+                + "), expected (" + freshLeft + ", " + freshTop + ")");
+        }
+        double centerX = fresh.getX() + fresh.getBounds().getCenterX();
+        double centerY = fresh.getY() + fresh.getBounds().getCenterY();
+        if (path.testHit(centerX, centerY) != fresh.testHit(centerX, centerY)) {
+            throw new AssertionError(context + ": hit test at (" + centerX + ", " + centerY + ") differs");
+        }
+    }
+
+    private static List<Point> toPoints(double[] coordinates) {
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < coordinates.length; i += 2) {
+            points.add(new Point(coordinates[i], coordinates[i + 1]));
+        }
+        return points;
+    }
+}
@@ -0,0 +1,144 @@
+package comp127.weather.api;
+
+import net.aksingh.owmjapis.Tools;
+
+import java.util.Random;
+
+/**
+ * Times naming wind directions three ways: the comparison chain that Tools.convertDegree2Direction
+ * used to be, the table lookup it uses now, and {@link CompassRose#SIXTEEN_POINT}, which
+ * {@link Conditions#getWindDirectionAsString()} uses. First checks that all three agree at every
+ * sector boundary, at its float neighbours, and on random directions, and fails otherwise.
+ * <p>
+ * Arguments: the number of directions per round (default 10000000) and of rounds (default 5).
+ */
+public class CompassRoseBenchmark {
+    private static volatile Object sink;
+
+    public static void main(String[] args) {
+        int directions = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        Tools tools = new Tools();
+        CompassRose rose = CompassRose.SIXTEEN_POINT;
+
+        Random random = new Random(127);
+        float[] degrees = new float[4096];
+        for (int i = 0; i < degrees.length; i++) {
+            degrees[i] = random.nextFloat() * 360;
+        }
+
+        int checked = 0;
+        for (int sector = 0; sector <= 32; sector++) {
+            float boundary = sector * 11.25f;
+            for (float degree : new float[] { Math.nextDown(boundary), boundary, Math.nextUp(boundary) }) {
+                if (degree >= 0 && degree <= 360) {
+                    checkSame(tools, rose, degree);
+                    checked++;
+                }
+            }
+        }
+        for (float degree : degrees) {
+            checkSame(tools, rose, degree);
+            checked++;
+        }
+        System.out.printf("%d directions named the same three ways%n", checked);
+
+        // The fastest of several rounds each; the earlier rounds warm up the JIT
+        double chain = Double.POSITIVE_INFINITY, table = Double.POSITIVE_INFINITY, roseTime = Double.POSITIVE_INFINITY;
+        for (int round = 0; round < rounds; round++) {
+            chain = Math.min(chain, timeComparisonChain(directions, degrees));
+        }
+        for (int round = 0; round < rounds; round++) {
+            table = Math.min(table, timeTools(directions, degrees, tools));
+        }
+        for (int round = 0; round < rounds; round++) {
+            roseTime = Math.min(roseTime, timeCompassRose(directions, degrees, rose));
+        }
+        System.out.printf("Nanoseconds per direction, fastest of %d rounds:%n", rounds);
+        System.out.printf("  comparison chain (old Tools): %5.2f%n", chain);
+        System.out.printf("  Tools table lookup:           %5.2f (%.1fx)%n", table, chain / table);
+        System.out.printf("  CompassRose.SIXTEEN_POINT:    %5.2f (%.1fx)%n", roseTime, chain / roseTime);
+    }
+
+    // One loop per way, so that each call site sees a single implementation
+
+    private static double timeComparisonChain(int directions, float[] degrees) {
+        long began = System.nanoTime();
+        int length = 0;
+        for (int i = 0; i < directions; i++) {
+            length += comparisonChain(degrees[i & (degrees.length - 1)]).length();
+        }
+        sink = length;
+        return (System.nanoTime() - began) / (double) directions;
+    }
+
+    private static double timeTools(int directions, float[] degrees, Tools tools) {
+        long began = System.nanoTime();
+        int length = 0;
+        for (int i = 0; i < directions; i++) {
+            length += tools.convertDegree2Direction(degrees[i & (degrees.length - 1)]).length();
+        }
+        sink = length;
+        return (System.nanoTime() - began) / (double) directions;
+    }
+
+    private static double timeCompassRose(int directions, float[] degrees, CompassRose rose) {
+        long began = System.nanoTime();
+        int length = 0;
+        for (int i = 0; i < directions; i++) {
+            length += rose.nameOf(degrees[i & (degrees.length - 1)]).length();
+        }
+        sink = length;
+        return (System.nanoTime() - began) / (double) directions;
+    }
+
+    private static void checkSame(Tools tools, CompassRose rose, float degree) {
+        String expected = comparisonChain(degree);
+        String fromTools = tools.convertDegree2Direction(degree), fromRose = rose.nameOf(degree);
+        if (!expected.equals(fromTools) || !expected.equals(fromRose)) {
+            throw new AssertionError(degree + "° is " + expected + " by the comparison chain, but "
+                + fromTools + " by Tools and " + fromRose + " by CompassRose");
+        }
+    }
+
+    /**
+     * Tools.convertDegree2Direction as it was before its table lookup, for comparison.
+     */
+    private static String comparisonChain(float degree) {
+        if (degree <= 11.25f) {
+            return "N";
+        } else if (degree <= 33.75f) {
+            return "NNE";
+        } else if (degree <= 56.25f) {
+            return "NE";
+        } else if (degree <= 78.75f) {
+            return "ENE";
+        } else if (degree <= 101.25f) {
+            return "E";
+        } else if (degree <= 123.75f) {
+            return "ESE";
+        } else if (degree <= 146.25f) {
+            return "SE";
+        } else if (degree <= 168.75f) {
+            return "SSE";
+        } else if (degree <= 191.25f) {
+            return "S";
+        } else if (degree <= 213.75f) {
+            return "SSW";
+        } else if (degree <= 236.25f) {
+            return "SW";
+        } else if (degree <= 258.75f) {
+            return "WSW";
+        } else if (degree <= 281.25f) {
+            return "W";
+        } else if (degree <= 303.75f) {
+            return "WNW";
+        } else if (degree <= 326.25f) {
+            return "NW";
+        } else if (degree <= 348.75f) {
+            return "NNW";
+        } else {
+            return "N";
+        }
+    }
+}
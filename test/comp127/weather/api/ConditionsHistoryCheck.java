@@ -0,0 +1,191 @@
+package comp127.weather.api;
+
+import comp127.weather.api.ConditionsHistory.Field;
+import comp127.weather.api.ConditionsHistory.Summary;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks {@link ConditionsHistory}’s block-summarized queries against a brute-force scan of the
+ * same samples, over random histories with missing values, rejected out-of-order samples, and
+ * enough samples to wrap around, for random windows of every size. Also checks that
+ * {@link WeatherHistory} evicts the least recently used location and reuses its history cleared,
+ * and that its summaries follow the location rather than the recycled history. Exits with an error on the first difference.
+ * <p>
+ * Arguments: the number of random histories (default 200) and windows per history (default 125).
+ */
+public class ConditionsHistoryCheck {
+    private static final double MILLIS_PER_HOUR = 3_600_000.0;
+
+    public static void main(String[] args) {
+        int histories = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int windowsPerHistory = args.length > 1 ? Integer.parseInt(args[1]) : 125;
+
+        Random random = new Random(127);
+        int windows = 0;
+        for (int h = 0; h < histories; h++) {
+            windows += checkRandomHistory(random, windowsPerHistory, "history " + h);
+        }
+        checkWeatherHistory();
+        System.out.println(windows + " windows in " + histories + " histories match a brute-force scan");
+    }
+
+    private static int checkRandomHistory(Random random, int windows, String context) {
+        ConditionsHistory history = new ConditionsHistory(1 + random.nextInt(300));
+        List<Sample> reference = new ArrayList<>();
+        long time = 1_600_000_000_000L + random.nextInt(1_000_000);
+        int samples = random.nextInt(history.getCapacity() * 3);
+        if (random.nextInt(4) == 0) {
+            // Reuse after clear(), as WeatherHistory does
+            for (int i = 0; i < 50; i++) {
+                history.add(time + i, 1, 2, 3, 4);
+            }
+            history.clear();
+        }
+        for (int i = 0; i < samples; i++) {
+            boolean outOfOrder = !reference.isEmpty() && random.nextInt(20) == 0;
+            long sampleTime = outOfOrder
+                ? reference.get(reference.size() - 1).time - random.nextInt(2)  // same time or earlier
+                : (time += 1 + random.nextInt(30 * 60_000));
+            double[] values = new double[Field.values().length];
+            for (int f = 0; f < values.length; f++) {
+                values[f] = random.nextInt(10) == 0
+                    ? Double.NaN
+                    : (float) (f * 300 + random.nextGaussian() * 20);  // stored as floats
+            }
+            boolean added = history.add(sampleTime, values[0], values[1], values[2], values[3]);
+            if (added == outOfOrder) {
+                throw new AssertionError(context + ": sample " + i + (outOfOrder ? " accepted" : " rejected"));
+            }
+            if (added) {
+                reference.add(new Sample(sampleTime, values));
+            }
+        }
+        List<Sample> held = reference.subList(Math.max(0, reference.size() - history.getCapacity()), reference.size());
+        if (history.size() != held.size()) {
+            throw new AssertionError(context + ": size " + history.size() + ", expected " + held.size());
+        }
+        if (held.isEmpty()) {
+            expect(0, history.summarize(Field.TEMPERATURE, Duration.ofDays(1)), List.of(), 0, context + ", empty");
+            return 1;
+        }
+
+        long oldest = held.get(0).time, newest = held.get(held.size() - 1).time;
+        for (int w = 0; w < windows; w++) {
+            Field field = Field.values()[random.nextInt(Field.values().length)];
+            long start, end;
+            Summary summary;
+            if (random.nextBoolean()) {
+                long length = (long) (random.nextDouble() * (newest - oldest + 2 * MILLIS_PER_HOUR));
+                start = newest - length;
+                end = newest;
+                summary = history.summarize(field, Duration.ofMillis(length));
+            } else {
+                long span = newest - oldest + 2 * (long) MILLIS_PER_HOUR;
+                long a = oldest - (long) MILLIS_PER_HOUR + (long) (random.nextDouble() * span);
+                long b = oldest - (long) MILLIS_PER_HOUR + (long) (random.nextDouble() * span);
+                if (random.nextInt(4) == 0) {
+                    b = a + random.nextInt(3);  // tiny windows, including single samples
+                }
+                start = Math.min(a, b);
+                end = Math.max(a, b);
+                summary = history.summarize(field, new Date(start), new Date(end));
+            }
+            List<Sample> inWindow = new ArrayList<>();
+            for (Sample sample : held) {
+                if (sample.time >= start && sample.time <= end) {
+                    inWindow.add(sample);
+                }
+            }
+            expect(field.ordinal(), summary, inWindow, inWindow.isEmpty() ? 0 : inWindow.get(0).time,
+                context + ", " + field + " from " + start + " to " + end);
+        }
+        return windows;
+    }
+
+    private static void expect(int field, Summary actual, List<Sample> samples, long origin, String context) {
+        int count = 0;
+        double min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+        double sumT = 0, sumT2 = 0, sumV = 0, sumTV = 0, scale = 1;
+        for (Sample sample : samples) {
+            double value = sample.values[field];
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            double t = (sample.time - origin) / MILLIS_PER_HOUR;
+            count++;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            sumT += t;
+            sumT2 += t * t;
+            sumV += value;
+            sumTV += t * value;
+            scale = Math.max(scale, Math.abs(value));
+        }
+        if (actual.getCount() != count) {
+            throw new AssertionError(context + ": " + actual.getCount() + " samples, expected " + count);
+        }
+        if (count == 0) {
+            return;
+        }
+        double spread = count * sumT2 - sumT * sumT;
+        double slope = count > 1 && spread > 0 ? (count * sumTV - sumT * sumV) / spread : Double.NaN;
+        if (actual.getMin() != min || actual.getMax() != max
+                || !close(actual.getAverage(), sumV / count, scale)
+                || !close(actual.getSlopePerHour(), slope, scale)) {
+            throw new AssertionError(context + ": " + actual + ", expected "
+                + String.format("min %.2f, max %.2f, average %.6f, slope %+.6f/h", min, max, sumV / count, slope));
+        }
+    }
+
+    private static boolean close(double actual, double expected, double scale) {
+        if (Double.isNaN(expected)) {
+            return Double.isNaN(actual);
+        }
+        return Math.abs(actual - expected) <= 1e-6 * Math.max(scale, Math.abs(expected));
+    }
+
+    private static void checkWeatherHistory() {
+        WeatherHistory histories = new WeatherHistory(32, 3);
+        for (String location : List.of("a", "b", "c")) {
+            histories.record(location, WeatherDataFixtures.generateWeatherData(location.charAt(0)));
+        }
+        ConditionsHistory b = histories.get("b");
+        histories.get("c");
+        histories.get("a");  // now b is the least recently used again
+        histories.record("d", WeatherDataFixtures.generateWeatherData('d'));
+
+        if (histories.getLocationCount() != 3 || histories.get("b") != null
+                || histories.get("a") == null || histories.get("c") == null) {
+            throw new AssertionError("WeatherHistory did not evict the least recently used location");
+        }
+        if (histories.get("d") != b || b.size() != 1) {
+            throw new AssertionError("WeatherHistory did not reuse the evicted history, cleared");
+        }
+
+        // Summaries are by location, so one for b can't see d’s samples in b’s old history
+        Date always = new Date(Long.MIN_VALUE), never = new Date(Long.MAX_VALUE);
+        double dTemperature = WeatherDataFixtures.generateWeatherData('d').getCurrentConditions().getTemperature();
+        Summary d = histories.summarize("d", Field.TEMPERATURE, Duration.ofDays(1));
+        if (histories.summarize("b", Field.TEMPERATURE, Duration.ofDays(1)).getCount() != 0
+                || histories.summarize("b", Field.TEMPERATURE, always, never).getCount() != 0
+                || d.getCount() != 1 || d.getAverage() != (float) dTemperature
+                || histories.summarize("d", Field.TEMPERATURE, always, never).getCount() != 1) {
+            throw new AssertionError("WeatherHistory summarized another location’s samples, or missed its own");
+        }
+    }
+
+    private static class Sample {
+        private final long time;
+        private final double[] values;
+
+        Sample(long time, double[] values) {
+            this.time = time;
+            this.values = values;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package comp127.weather.api;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A clock for {@link RateLimiter} that only moves when told to, or when something sleeps on it,
+ * so that checks of the limiter don’t depend on real time passing.
+ */
+final class FakeClock implements RateLimiter.Clock {
+    private final AtomicLong now = new AtomicLong(TimeUnit.DAYS.toNanos(1));
+    private final AtomicLong slept = new AtomicLong();
+
+    @Override
+    public long nanoTime() {
+        return now.get();
+    }
+
+    /**
+     * Returns at once, as if the time had passed.
+     */
+    @Override
+    public void sleep(long nanos) {
+        slept.addAndGet(nanos);
+        now.addAndGet(nanos);
+    }
+
+    void advance(long duration, TimeUnit unit) {
+        now.addAndGet(unit.toNanos(duration));
+    }
+
+    /**
+     * The total time callers have slept, in nanoseconds.
+     */
+    long getSleptNanos() {
+        return slept.get();
+    }
+}
@@ -0,0 +1,217 @@
+package comp127.weather.api;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Writes a synthetic year of observations and forecasts for many locations to a
+ * {@link WeatherLog}, then times {@link ForecastAccuracy} analyzing it: a full load of the first
+ * eleven months, the last month added one refresh at a time, and the summary queries. Also checks
+ * that adding data incrementally gives the same results as loading it all at once.
+ * <p>
+ * The values come from {@link WeatherDataFixtures}, one generated WeatherData per location per
+ * refresh, moved to synthetic fetch times a refresh apart. They are random, so the errors are
+ * large; only the timings mean anything.
+ * <p>
+ * Arguments are name=value pairs:
+ * <ul>
+ *   <li>locations: how many locations (default 100)</li>
+ *   <li>days: how many days of data (default 365)</li>
+ *   <li>refresh: hours between fetches (default 3, which lines up with forecast times)</li>
+ *   <li>rounds: how many times to time the full load; the first rounds warm up the JIT (default 3)</li>
+ * </ul>
+ * Loading is parallel by location; to compare with a single thread, run with
+ * -Djava.util.concurrent.ForkJoinPool.common.parallelism=1.
+ */
+public class ForecastAccuracyBenchmark {
+    private static final long MILLIS_PER_HOUR = 3_600_000, MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+    private static final int INCREMENTAL_DAYS = 30;
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = StubWeatherServer.parseOptions(args);
+        int locations = Integer.parseInt(options.getOrDefault("locations", "100"));
+        int days = Integer.parseInt(options.getOrDefault("days", "365"));
+        int refreshHours = Integer.parseInt(options.getOrDefault("refresh", "3"));
+        int rounds = Integer.parseInt(options.getOrDefault("rounds", "3"));
+
+        PrintStream out = System.out;
+        out.printf("%d locations, %s, %d processors%n",
+            locations, options, Runtime.getRuntime().availableProcessors());
+
+        long start = 1_577_836_800_000L;  // 2020-01-01 UTC
+        long end = start + days * MILLIS_PER_DAY - 1;
+        long split = end + 1 - INCREMENTAL_DAYS * MILLIS_PER_DAY;
+        Path directory = Files.createTempDirectory("forecast-accuracy");
+        try (WeatherLog log = new WeatherLog(directory)) {
+            long began = System.nanoTime();
+            long forecastCount = generate(log, locations, start, end, refreshHours * MILLIS_PER_HOUR);
+            out.printf("Generated %d observations and %d forecasts in %.1f s%n",
+                log.getObservations().getLocations().stream().mapToLong(location -> countObservations(log, location)).sum(),
+                forecastCount, (System.nanoTime() - began) / 1e9);
+
+            for (int round = 1; round <= rounds; round++) {
+                ForecastAccuracy accuracy = new ForecastAccuracy();
+                began = System.nanoTime();
+                accuracy.load(log, new Date(start), new Date(split - 1));
+                out.printf("Round %d: loaded %d days in %.0f ms%n",
+                    round, days - INCREMENTAL_DAYS, (System.nanoTime() - began) / 1e6);
+            }
+
+            ForecastAccuracy incremental = new ForecastAccuracy();
+            incremental.load(log, new Date(start), new Date(split - 1));
+            addIncrementally(incremental, log, split, end, out);
+
+            ForecastAccuracy all = new ForecastAccuracy();
+            began = System.nanoTime();
+            all.load(log, new Date(start), new Date(end));
+            out.printf("Loaded all %d days in %.0f ms%n", days, (System.nanoTime() - began) / 1e6);
+            out.println("Incremental matches full load: "
+                + (all.getStatsByLead().toString().equals(incremental.getStatsByLead().toString())
+                    && all.getUnmatchedCount() == incremental.getUnmatchedCount()));
+
+            timeQueries(all, out);
+
+            List<ForecastAccuracy.ErrorStats> byLead = all.getStatsByLead();
+            for (int bucket = 0; bucket < byLead.size(); bucket++) {
+                if (byLead.get(bucket).getCount() > 0) {
+                    out.printf("  %3.0f-%3.0f h: %s%n",
+                        bucket * all.getBucketHours(), (bucket + 1) * all.getBucketHours(), byLead.get(bucket));
+                }
+            }
+            out.printf("  unmatched %d, still waiting %d%n", all.getUnmatchedCount(), all.getPendingCount());
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    // –––––– Synthetic data ––––––
+
+    private static long generate(WeatherLog log, int locations, long start, long end, long refreshMillis)
+            throws IOException {
+        float[] observation = new float[WeatherLog.ObservationColumn.values().length];
+        float[] forecast = new float[WeatherLog.ForecastColumn.values().length];
+        long forecastCount = 0;
+        int seed = 1;
+        for (long time = start; time <= end; time += refreshMillis) {
+            for (int i = 0; i < locations; i++) {
+                WeatherData data = WeatherDataFixtures.generateWeatherData(seed++);
+                long fetchTime = data.getFetchTime().getTime();
+                String location = "location-" + i;
+
+                Arrays.fill(observation, Float.NaN);
+                observation[WeatherLog.ObservationColumn.TEMPERATURE.ordinal()] =
+                    data.getCurrentConditions().getTemperature().floatValue();
+                log.getObservations().append(location, time, observation);
+
+                for (ForecastConditions conditions : data.getForecasts()) {
+                    Arrays.fill(forecast, Float.NaN);
+                    forecast[WeatherLog.ForecastColumn.LEAD_HOURS.ordinal()] =
+                        (float) ((conditions.getPredictionTime().getTime() - fetchTime) / (double) MILLIS_PER_HOUR);
+                    forecast[WeatherLog.ForecastColumn.TEMPERATURE.ordinal()] = conditions.getTemperature().floatValue();
+                    forecast[WeatherLog.ForecastColumn.MIN_TEMPERATURE.ordinal()] = conditions.getMinTemperature().floatValue();
+                    forecast[WeatherLog.ForecastColumn.MAX_TEMPERATURE.ordinal()] = conditions.getMaxTemperature().floatValue();
+                    log.getForecasts().append(location, time, forecast);
+                    forecastCount++;
+                }
+            }
+        }
+        return forecastCount;
+    }
+
+    private static long countObservations(WeatherLog log, String location) {
+        try {
+            return log.scanObservations(location, new Date(Long.MIN_VALUE), new Date(Long.MAX_VALUE)).size();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // –––––– Timing ––––––
+
+    /**
+     * Adds the data from split to end one refresh at a time, in the order the app would fetch it.
+     */
+    private static void addIncrementally(ForecastAccuracy accuracy, WeatherLog log, long split, long end, PrintStream out)
+            throws IOException {
+        List<String> locations = log.getObservations().getLocations();
+        TimeSeriesLog.Slice[] observations = new TimeSeriesLog.Slice[locations.size()];
+        TimeSeriesLog.Slice[] forecasts = new TimeSeriesLog.Slice[locations.size()];
+        for (int i = 0; i < observations.length; i++) {
+            observations[i] = log.scanObservations(
+                locations.get(i), new Date(split), new Date(end), WeatherLog.ObservationColumn.TEMPERATURE);
+            forecasts[i] = log.scanForecasts(
+                locations.get(i), new Date(split), new Date(end),
+                WeatherLog.ForecastColumn.LEAD_HOURS,
+                WeatherLog.ForecastColumn.TEMPERATURE,
+                WeatherLog.ForecastColumn.MIN_TEMPERATURE,
+                WeatherLog.ForecastColumn.MAX_TEMPERATURE);
+        }
+
+        int[] nextForecast = new int[locations.size()];
+        int refreshes = observations[0].size();
+        long observationCount = 0, forecastCount = 0;
+        long[] refreshNanos = new long[refreshes];
+        for (int r = 0; r < refreshes; r++) {
+            long began = System.nanoTime();
+            for (int i = 0; i < observations.length; i++) {
+                String location = locations.get(i);
+                long time = observations[i].getTimes()[r];
+                accuracy.addObservation(
+                    location, time, observations[i].getColumn(WeatherLog.ObservationColumn.TEMPERATURE.ordinal())[r]);
+                observationCount++;
+
+                TimeSeriesLog.Slice f = forecasts[i];
+                while (nextForecast[i] < f.size() && f.getTimes()[nextForecast[i]] == time) {
+                    int j = nextForecast[i]++;
+                    accuracy.addForecast(location, time,
+                        f.getColumn(WeatherLog.ForecastColumn.LEAD_HOURS.ordinal())[j],
+                        f.getColumn(WeatherLog.ForecastColumn.TEMPERATURE.ordinal())[j],
+                        f.getColumn(WeatherLog.ForecastColumn.MIN_TEMPERATURE.ordinal())[j],
+                        f.getColumn(WeatherLog.ForecastColumn.MAX_TEMPERATURE.ordinal())[j]);
+                    forecastCount++;
+                }
+            }
+            refreshNanos[r] = System.nanoTime() - began;
+        }
+
+        long total = Arrays.stream(refreshNanos).sum();
+        Arrays.sort(refreshNanos);
+        out.printf(
+            "Incremental: %d refreshes of %d locations (%d observations, %d forecasts) in %.0f ms;"
+                + " per refresh median %.2f ms, max %.2f ms; %.2f us per observation with its forecasts%n",
+            refreshes, locations.size(), observationCount, forecastCount, total / 1e6,
+            refreshNanos[refreshes / 2] / 1e6, refreshNanos[refreshes - 1] / 1e6,
+            total / 1e3 / observationCount);
+    }
+
+    private static void timeQueries(ForecastAccuracy accuracy, PrintStream out) {
+        int repeats = 200;
+        long began = System.nanoTime();
+        for (int i = 0; i < repeats; i++) {
+            accuracy.getStatsByLead();
+        }
+        double byLead = (System.nanoTime() - began) / 1e3 / repeats;
+        began = System.nanoTime();
+        for (int i = 0; i < repeats; i++) {
+            accuracy.getStatsByLocation();
+        }
+        double byLocation = (System.nanoTime() - began) / 1e3 / repeats;
+        out.printf("Queries: by lead time %.0f us, by location %.0f us%n", byLead, byLocation);
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
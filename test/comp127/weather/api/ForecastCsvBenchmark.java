@@ -0,0 +1,93 @@
+package comp127.weather.api;
+
+import org.json.CDLReader;
+import org.json.JSONArray;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streams millions of forecast rows to a CSV file with {@link ForecastCsvWriter}, reads them back
+ * with {@link CDLReader}, and reports throughput and the heap in use before and after, to show
+ * that memory stays flat however long the file gets. Run it with a small heap, e.g. -Xmx32m, to
+ * check that neither side holds the table.
+ * <p>
+ * The forecasts come from {@link WeatherDataFixtures}, cycled as many times as needed.
+ * <p>
+ * Arguments are name=value pairs:
+ * <ul>
+ *   <li>rows: how many forecast rows to write (default 2000000)</li>
+ * </ul>
+ */
+public class ForecastCsvBenchmark {
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = StubWeatherServer.parseOptions(args);
+        long rows = Long.parseLong(options.getOrDefault("rows", "2000000"));
+
+        List<WeatherData> samples = new ArrayList<>();
+        for (int seed = 1; seed <= 100; seed++) {
+            samples.add(WeatherDataFixtures.generateWeatherData(seed));
+        }
+
+        Path file = Files.createTempFile("forecasts", ".csv");
+        try {
+            long heapBefore = usedHeapAfterGc();
+
+            long began = System.nanoTime();
+            long written = 0;
+            try (ForecastCsvWriter out = new ForecastCsvWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+                write:
+                while (true) {
+                    for (int i = 0; i < samples.size(); i++) {
+                        for (ForecastConditions forecast : samples.get(i).getForecasts()) {
+                            if (written == rows) {
+                                break write;
+                            }
+                            out.write("location-" + i, forecast);
+                            written++;
+                        }
+                    }
+                }
+            }
+            double writeSeconds = (System.nanoTime() - began) / 1e9;
+            long heapAfterWrite = usedHeapAfterGc();
+
+            began = System.nanoTime();
+            long read = 0;
+            try (CDLReader in = new CDLReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+                JSONArray names = in.nextRow();
+                for (JSONArray row = in.nextRow(); row != null; row = in.nextRow()) {
+                    if (row.length() != names.length()) {
+                        throw new AssertionError("Row " + read + " has " + row.length() + " cells");
+                    }
+                    read++;
+                }
+            }
+            double readSeconds = (System.nanoTime() - began) / 1e9;
+            long heapAfterRead = usedHeapAfterGc();
+
+            if (read != written) {
+                throw new AssertionError("Wrote " + written + " rows but read " + read);
+            }
+            System.out.printf("%d rows, %.0f MB file, max heap %.0f MB%n",
+                written, Files.size(file) / 1e6, Runtime.getRuntime().maxMemory() / 1e6);
+            System.out.printf("  write: %.1f s, %.0f rows/s%n", writeSeconds, written / writeSeconds);
+            System.out.printf("  read:  %.1f s, %.0f rows/s%n", readSeconds, read / readSeconds);
+            System.out.printf("  heap in use: %.1f MB before, %.1f MB after writing, %.1f MB after reading%n",
+                heapBefore / 1e6, heapAfterWrite / 1e6, heapAfterRead / 1e6);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        Thread.sleep(100);
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
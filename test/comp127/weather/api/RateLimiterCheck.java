@@ -0,0 +1,142 @@
+package comp127.weather.api;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Checks {@link RateLimiter} against a {@link FakeClock}: bursts, steady refill, waiting in
+ * arrival order, tryAcquire() not taking permits that waiting callers reserved, giving permits
+ * back, and that concurrent tryAcquire() calls never hand out more permits than there are. Exits
+ * with an error if anything is off.
+ */
+public class RateLimiterCheck {
+    private static final long SECOND = SECONDS.toNanos(1);
+
+    public static void main(String[] args) throws Exception {
+        checkBurstAndRefill();
+        checkWaitingInOrder();
+        checkRelease();
+        checkConcurrentTryAcquire();
+        checkArguments();
+        System.out.println("Rate limiter checks passed");
+    }
+
+    private static void checkBurstAndRefill() {
+        FakeClock clock = new FakeClock();
+        RateLimiter limiter = new RateLimiter(1, 10, clock);
+
+        expect(10, limiter.getAvailablePermits(), "permits at first");
+        for (int i = 0; i < 10; i++) {
+            expect(true, limiter.tryAcquire(1), "permit " + i + " of the burst");
+        }
+        expect(false, limiter.tryAcquire(1), "a permit past the burst");
+        expect(0, limiter.getAvailablePermits(), "permits after the burst");
+        expect(SECOND, limiter.nanosUntilAvailable(1), "time until the next permit");
+
+        clock.advance(999, MILLISECONDS);
+        expect(false, limiter.tryAcquire(1), "a permit just before it refills");
+        clock.advance(1, MILLISECONDS);
+        expect(true, limiter.tryAcquire(1), "a permit once it refills");
+        expect(false, limiter.tryAcquire(1), "a second permit after one second");
+
+        clock.advance(1500, MILLISECONDS);
+        expect(false, limiter.tryAcquire(2), "two permits after 1.5 seconds");
+        clock.advance(500, MILLISECONDS);
+        expect(0L, limiter.nanosUntilAvailable(2), "time until two permits after 2 seconds");
+        expect(true, limiter.tryAcquire(2), "two permits after 2 seconds");
+
+        clock.advance(1, HOURS);
+        expect(10, limiter.getAvailablePermits(), "permits after an hour, capped at the burst");
+    }
+
+    private static void checkWaitingInOrder() throws InterruptedException {
+        FakeClock clock = new FakeClock();
+        RateLimiter limiter = new RateLimiter(1, 10, clock);
+        limiter.tryAcquire(10);
+
+        // Each caller waits behind the ones before it
+        expect(3 * SECOND, limiter.reserve(3), "the first waiter’s wait");
+        expect(6 * SECOND, limiter.reserve(3), "the second waiter’s wait");
+        expect(9 * SECOND, limiter.reserve(3), "the third waiter’s wait");
+
+        // tryAcquire can’t jump the queue: nothing is free until every waiter has had its turn
+        clock.advance(9, SECONDS);
+        expect(false, limiter.tryAcquire(1), "a permit while waiters are still owed theirs");
+        clock.advance(1, SECONDS);
+        expect(true, limiter.tryAcquire(1), "a permit after the waiters");
+
+        // acquire() sleeps for exactly its turn
+        long slept = clock.getSleptNanos();
+        expect(2 * SECOND, limiter.acquire(2), "acquire’s reported wait");
+        expect(2 * SECOND, clock.getSleptNanos() - slept, "acquire’s sleep");
+        expect(0L, new RateLimiter(1, 10, clock).acquire(5), "acquire’s wait with permits to spare");
+    }
+
+    private static void checkRelease() {
+        FakeClock clock = new FakeClock();
+        RateLimiter limiter = new RateLimiter(1, 10, clock);
+        limiter.tryAcquire(10);
+        limiter.release(4);
+        expect(4, limiter.getAvailablePermits(), "permits after giving 4 back");
+        expect(true, limiter.tryAcquire(4), "the permits given back");
+        expect(false, limiter.tryAcquire(1), "a permit after retaking them");
+    }
+
+    private static void checkConcurrentTryAcquire() throws Exception {
+        FakeClock clock = new FakeClock();
+        int burst = 100_000;
+        RateLimiter limiter = new RateLimiter(1, burst, clock);
+        int threads = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Integer>> takers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                takers.add(() -> {
+                    int taken = 0;
+                    for (int i = 0; i < burst; i++) {
+                        if (limiter.tryAcquire(1)) {
+                            taken++;
+                        }
+                    }
+                    return taken;
+                });
+            }
+            int total = 0;
+            for (Future<Integer> taken : pool.invokeAll(takers)) {
+                total += taken.get();
+            }
+            expect(burst, total, "permits taken by " + threads + " threads at once");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static void checkArguments() {
+        for (Runnable invalid : List.<Runnable>of(
+                () -> new RateLimiter(0, 1),
+                () -> new RateLimiter(Double.NaN, 1),
+                () -> new RateLimiter(1, 0),
+                () -> new RateLimiter(1, 1).tryAcquire(0))) {
+            try {
+                invalid.run();
+                throw new AssertionError("An invalid argument was accepted");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    private static void expect(Object expected, Object actual, String what) {
+        if (!expected.equals(actual)) {
+            throw new AssertionError(what + ": " + actual + ", expected " + expected);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package comp127.weather.api;
+
+import comp127.weather.api.RequestScheduler.Priority;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks {@link RequestScheduler}’s ordering rules on a single request thread held busy while
+ * requests queue up: interactive requests start before background ones, requests for the same key
+ * merge into one fetch whose result every callback gets, merging an interactive request into a
+ * background one promotes it, and a full queue drops its oldest background request. With a rate
+ * limiter, an interactive request submitted while background ones wait for permits starts first,
+ * and permits taken for a request that is merged or dropped are given back. Also checks that the
+ * request threads are daemons, so they can’t keep the app running. Exits with an error if
+ * anything is out of order; returning at all shows the threads didn’t hold the JVM open.
+ */
+public class RequestSchedulerCheck {
+    private static final long TIMEOUT_SECONDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        checkPriorityOrder();
+        checkMerging();
+        checkDropping();
+        checkRateLimitedPriority();
+        checkPermitsReturned();
+        checkDaemonThreads();
+        System.out.println("Request scheduler checks passed");
+    }
+
+    private static void checkPriorityOrder() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(1, 100);
+        CountDownLatch release = block(scheduler);
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(5);
+        for (String key : List.of("b1", "b2", "i1", "b3", "i2")) {
+            Priority priority = key.startsWith("i") ? Priority.INTERACTIVE : Priority.BACKGROUND;
+            scheduler.submit(key, priority, record(key, started), data -> done.countDown());
+        }
+        release.countDown();
+        await(done, "prioritized requests");
+        expect(List.of("i1", "i2", "b1", "b2", "b3"), started, "start order");
+        expect(3L, scheduler.getStats().getStartedCount(Priority.INTERACTIVE), "interactive starts, with the blocker");
+    }
+
+    private static void checkMerging() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(1, 100);
+        CountDownLatch release = block(scheduler);
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        List<WeatherData> results = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(4);
+
+        expect(true, scheduler.submit("same", Priority.BACKGROUND, record("same", started), data -> {
+            results.add(data);
+            done.countDown();
+        }), "first request queued");
+        expect(false, scheduler.submit("same", Priority.BACKGROUND, record("same again", started), data -> {
+            results.add(data);
+            done.countDown();
+        }), "second request merged");
+        scheduler.submit("other", Priority.BACKGROUND, record("other", started), data -> done.countDown());
+        // Promotes "late" past "other", though it was queued after it
+        scheduler.submit("late", Priority.BACKGROUND, record("late", started), data -> { });
+        scheduler.submit("late", Priority.INTERACTIVE, record("late again", started), data -> done.countDown());
+
+        release.countDown();
+        await(done, "merged requests");
+        expect(List.of("late", "same", "other"), started, "start order after merging");
+        expect(2, results.size(), "callbacks for the merged request");
+        if (results.get(0) != results.get(1)) {
+            throw new AssertionError("Merged callbacks got different results");
+        }
+        expect(2L, scheduler.getStats().getMergedCount(), "merged count");
+    }
+
+    private static void checkDropping() throws Exception {
+        RequestScheduler scheduler = new RequestScheduler(1, 3);
+        CountDownLatch release = block(scheduler);
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger droppedCallbacks = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(3);
+
+        scheduler.submit("interactive", Priority.INTERACTIVE, record("interactive", started), data -> done.countDown());
+        scheduler.submit("oldest", Priority.BACKGROUND, record("oldest", started),
+            data -> droppedCallbacks.incrementAndGet());
+        scheduler.submit("newer", Priority.BACKGROUND, record("newer", started), data -> done.countDown());
+        scheduler.submit("newest", Priority.BACKGROUND, record("newest", started), data -> done.countDown());
+
+        release.countDown();
+        await(done, "requests left after dropping");
+        expect(List.of("interactive", "newer", "newest"), started, "requests run from a full queue");
+        expect(0, droppedCallbacks.get(), "callbacks of the dropped request");
+        expect(1L, scheduler.getStats().getDroppedCount(), "dropped count");
+    }
+
+    private static void checkRateLimitedPriority() throws Exception {
+        // Real time: one permit every 100 ms, and none to start with
+        RateLimiter limiter = new RateLimiter(10, 1);
+        limiter.tryAcquire(1);
+        RequestScheduler scheduler = new RequestScheduler(2, 100);
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(4);
+
+        for (String key : List.of("b1", "b2", "b3")) {
+            scheduler.submit(key, Priority.BACKGROUND, limiter, 1, false, record(key, started), data -> done.countDown());
+        }
+        Thread.sleep(5);  // both threads are now waiting for the limiter, not holding requests
+        scheduler.submit("i", Priority.INTERACTIVE, limiter, 1, false, record("i", started), data -> done.countDown());
+
+        await(done, "rate-limited requests");
+        expect(List.of("i", "b1", "b2", "b3"), started, "start order under the rate limit");
+        RequestScheduler.Stats stats = scheduler.getStats();
+        if (stats.getRateLimitedCount() < 3 || stats.getRateLimitWaitMillis() <= 0) {
+            throw new AssertionError("Rate limit waits not counted: " + stats);
+        }
+    }
+
+    private static void checkPermitsReturned() throws Exception {
+        FakeClock clock = new FakeClock();  // never moves, so permits only come back by release
+        RateLimiter limiter = new RateLimiter(1, 4, clock);
+        RequestScheduler scheduler = new RequestScheduler(1, 1);
+        CountDownLatch release = block(scheduler);
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+
+        limiter.tryAcquire(2);
+        scheduler.submit("held", Priority.BACKGROUND, limiter, 2, true, record("held", started), data -> { });
+        limiter.tryAcquire(2);
+        scheduler.submit("held", Priority.BACKGROUND, limiter, 2, true, record("held again", started), data -> { });
+        expect(2, limiter.getAvailablePermits(), "permits after merging a request that held some");
+
+        // The queue holds one request, so this drops the first
+        scheduler.submit("next", Priority.BACKGROUND, limiter, 2, false, record("next", started), data -> done.countDown());
+        expect(4, limiter.getAvailablePermits(), "permits after dropping a request that held some");
+
+        release.countDown();
+        await(done, "the request after the dropped one");
+        expect(List.of("next"), started, "requests run");
+        expect(2, limiter.getAvailablePermits(), "permits after it ran");
+    }
+
+    private static void checkDaemonThreads() {
+        int found = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("weather request")) {
+                found++;
+                if (!thread.isDaemon()) {
+                    throw new AssertionError(thread.getName() + " is not a daemon thread");
+                }
+            }
+        }
+        if (found == 0) {
+            throw new AssertionError("No request threads found");
+        }
+    }
+
+    /**
+     * Occupies the scheduler’s only thread until the returned latch is released, so that the
+     * requests submitted meanwhile all wait in the queue.
+     */
+    private static CountDownLatch block(RequestScheduler scheduler) throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1), release = new CountDownLatch(1);
+        scheduler.submit("blocker", Priority.INTERACTIVE, () -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return WeatherDataFixtures.generateWeatherData(0);
+        }, data -> { });
+        await(running, "the blocking request");
+        return release;
+    }
+
+    private static RequestScheduler.Fetch record(String name, List<String> started) {
+        WeatherData result = WeatherDataFixtures.generateWeatherData(name.length());
+        return () -> {
+            started.add(name);
+            return result;
+        };
+    }
+
+    private static void await(CountDownLatch latch, String what) throws InterruptedException {
+        if (!latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new AssertionError("Timed out waiting for " + what);
+        }
+    }
+
+    private static void expect(Object expected, Object actual, String what) {
+        if (!expected.equals(actual)) {
+            throw new AssertionError(what + ": " + actual + ", expected " + expected);
+        }
+    }
+}
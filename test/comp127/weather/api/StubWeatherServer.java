@@ -0,0 +1,244 @@
+package comp127.weather.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * A local stand-in for the OpenWeather API that answers every {@code weather?} and
+ * {@code forecast?} request with a recorded response from {@code test-res/stub-responses}, so
+ * that the fetching pipeline can be exercised without a network, an API key, or a rate limit.
+ * <p>
+ * It can add latency, fail a fraction of requests, and gzip its responses, to see how the app
+ * copes with a slow or flaky server. Point the app at it with
+ * {@code -Dapi.base_url=http://localhost:<port>/data/2.5/}, or run {@link #main(String[])} to
+ * start one on its own.
+ * <p>
+ * Responses are sent from a scheduler rather than by sleeping in the handler, so added latency
+ * doesn’t limit how many requests can be in progress at once.
+ */
+public class StubWeatherServer {
+
+    private static final String API_PATH = "/data/2.5/";
+
+    private final HttpServer server;
+    private final ScheduledExecutorService responder;
+    private final Map<String, Response> responses;
+    private final Response notFound, injectedError;
+
+    private volatile int latencyMillis, latencyJitterMillis;
+    private volatile double errorRate;
+    private volatile boolean gzip = true;
+
+    private final AtomicLong requestCount = new AtomicLong(), errorCount = new AtomicLong();
+
+    /**
+     * Creates a server on the given port of the loopback interface. It does not answer requests
+     * until {@link #start()} is called.
+     *
+     * @param port The port to listen on, or 0 for any free port.
+     */
+    public StubWeatherServer(int port) throws IOException {
+        responses = Map.of(
+            "weather", new Response(200, loadRecording("weather.json")),
+            "forecast", new Response(200, loadRecording("forecast.json")));
+        notFound = new Response(404, "{\"cod\":\"404\",\"message\":\"stub server has no recording for this path\"}");
+        injectedError = new Response(503, "{\"cod\":503,\"message\":\"stub server injected error\"}");
+
+        // HttpServer writes headers and body separately, and with Nagle’s algorithm on, the body
+        // waits for the client’s delayed ACK of the headers: 40 ms per request that the real
+        // server doesn’t add. Only takes effect before the first server is created.
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext(API_PATH, this::handle);
+        responder = Executors.newScheduledThreadPool(4, runnable -> {
+            Thread thread = new Thread(runnable, "stub weather server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(responder);
+    }
+
+    /**
+     * Recordings are pretty-printed for reading, but the OpenWeatherMap client only keeps the last
+     * line of a response, as the real server sends everything on one.
+     */
+    private static String loadRecording(String name) throws IOException {
+        String resource = "/stub-responses/" + name;
+        InputStream in = StubWeatherServer.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IOException("No " + resource + " on the classpath; add test-res to it");
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return reader.lines().map(String::strip).collect(joining());
+        }
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        responder.shutdownNow();
+    }
+
+    /**
+     * The address to pass to {@code OpenWeatherMap.setBaseUrl()} or {@code api.base_url}.
+     */
+    public String getBaseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + API_PATH;
+    }
+
+    /**
+     * Delays each response by the given time plus a uniformly random extra of up to jitterMillis.
+     *
+     * @return this server, for chaining
+     */
+    public StubWeatherServer setLatency(int latencyMillis, int latencyJitterMillis) {
+        this.latencyMillis = latencyMillis;
+        this.latencyJitterMillis = latencyJitterMillis;
+        return this;
+    }
+
+    /**
+     * Answers the given fraction of requests with a 503 error instead of the recording.
+     *
+     * @return this server, for chaining
+     */
+    public StubWeatherServer setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * Whether to gzip responses for clients that accept it. On by default, as the real server does.
+     *
+     * @return this server, for chaining
+     */
+    public StubWeatherServer setGzip(boolean gzip) {
+        this.gzip = gzip;
+        return this;
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public long getInjectedErrorCount() {
+        return errorCount.get();
+    }
+
+    private void handle(HttpExchange exchange) {
+        requestCount.incrementAndGet();
+        String path = exchange.getRequestURI().getPath();
+        Response response = responses.getOrDefault(path.substring(API_PATH.length()), notFound);
+        if (response != notFound && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            errorCount.incrementAndGet();
+            response = injectedError;
+        }
+
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        // The OpenWeatherMap client doesn’t decompress error bodies before logging them
+        boolean compress = gzip && response.status == 200
+            && acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        Response chosen = response;
+        int delay = latencyMillis + (latencyJitterMillis > 0 ? ThreadLocalRandom.current().nextInt(latencyJitterMillis) : 0);
+        if (delay > 0) {
+            responder.schedule(() -> send(exchange, chosen, compress), delay, TimeUnit.MILLISECONDS);
+        } else {
+            send(exchange, chosen, compress);
+        }
+    }
+
+    private static void send(HttpExchange exchange, Response response, boolean compress) {
+        try {
+            byte[] body = compress ? response.gzipped : response.plain;
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            if (compress) {
+                exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(response.status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (IOException e) {
+            System.err.println("Stub server could not respond: " + e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * A canned response, compressed ahead of time so that gzip costs nothing per request.
+     */
+    private static class Response {
+        private final int status;
+        private final byte[] plain, gzipped;
+
+        Response(int status, String body) {
+            this.status = status;
+            plain = body.getBytes(StandardCharsets.UTF_8);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+                out.write(plain);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            gzipped = buffer.toByteArray();
+        }
+    }
+
+    /**
+     * Runs a stub server until killed. Arguments are name=value pairs:
+     * port (default 8080), latency and jitter (milliseconds, default 0),
+     * errors (fraction of requests to fail, default 0), and gzip (default true).
+     */
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        StubWeatherServer stub = new StubWeatherServer(Integer.parseInt(options.getOrDefault("port", "8080")))
+            .setLatency(
+                Integer.parseInt(options.getOrDefault("latency", "0")),
+                Integer.parseInt(options.getOrDefault("jitter", "0")))
+            .setErrorRate(Double.parseDouble(options.getOrDefault("errors", "0")))
+            .setGzip(Boolean.parseBoolean(options.getOrDefault("gzip", "true")));
+        stub.start();
+        System.out.println("Stub weather server running; use -Dapi.base_url=" + stub.getBaseUrl());
+    }
+
+    /**
+     * Parses name=value command line arguments.
+     */
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Expected name=value, but got " + arg);
+            }
+            options.put(arg.substring(0, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,260 @@
+package comp127.weather.api;
+
+import comp127.weather.api.WeatherLog.ForecastColumn;
+import comp127.weather.api.WeatherLog.ObservationColumn;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Round-trips random records through {@link TimeSeriesLog} and checks every scan against the
+ * records appended. Tiny chunks and segments make the log seal hundreds of segments, and it is
+ * reopened along the way, both after closing and as if the program had crashed, so appends resume
+ * in an unsealed segment. Scans start and end exactly on, just before, and just after every record
+ * of one location, which covers every chunk edge, as well as at random times. Also checks that
+ * only a few sealed segment files stay open, and that {@link WeatherLog} reads back what it
+ * recorded. Exits with an error on the first difference. Takes a few seconds.
+ * <p>
+ * Arguments: the number of appends (default 10000).
+ */
+public class TimeSeriesLogCheck {
+    private static final int COLUMNS = 3, CHUNK_SIZE = 512, SEGMENT_SIZE = 8 * CHUNK_SIZE, LOCATIONS = 20;
+
+    public static void main(String[] args) throws IOException {
+        int appends = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+
+        Path directory = Files.createTempDirectory("time-series-log");
+        try {
+            checkTimeSeriesLog(directory.resolve("log"), appends);
+            checkWeatherLog(directory.resolve("weather"));
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private static void checkTimeSeriesLog(Path directory, int appends) throws IOException {
+        Random random = new Random(127);
+        Map<String, List<Record>> expected = new HashMap<>();
+        Map<String, Long> lastTimes = new HashMap<>();
+        TimeSeriesLog log = new TimeSeriesLog(directory, COLUMNS, CHUNK_SIZE, SEGMENT_SIZE);
+        int reopens = 0;
+
+        for (int i = 0; i < appends; i++) {
+            String location = "location " + random.nextInt(LOCATIONS);
+            long last = lastTimes.getOrDefault(location, 1_600_000_000_000L);
+            boolean older = expected.containsKey(location) && random.nextInt(50) == 0;
+            long time = older
+                ? last - 1 - random.nextInt(1000)
+                : last + (random.nextInt(10) == 0 ? 0 : 1 + random.nextInt(600_000));  // some repeated times
+            float[] values = new float[COLUMNS];
+            for (int c = 0; c < COLUMNS; c++) {
+                values[c] = random.nextInt(20) == 0 ? Float.NaN : (float) random.nextGaussian() * 100;
+            }
+
+            boolean added = log.append(location, time, values);
+            if (added == older) {
+                throw new AssertionError("Append " + i + " at " + time + (older ? " accepted" : " rejected"));
+            }
+            if (added) {
+                expected.computeIfAbsent(location, key -> new ArrayList<>()).add(new Record(time, values.clone()));
+                lastTimes.put(location, time);
+            }
+
+            if (random.nextInt(appends / 4) == 0) {
+                // Reopen, either cleanly or as if the program had crashed: records already
+                // appended are in the mapped file either way
+                if (random.nextBoolean()) {
+                    log.close();
+                }
+                log = new TimeSeriesLog(directory, COLUMNS, CHUNK_SIZE, SEGMENT_SIZE);
+                reopens++;
+                checkScans(log, expected, random, 20);
+            }
+        }
+        log.close();
+        log = new TimeSeriesLog(directory, COLUMNS, CHUNK_SIZE, SEGMENT_SIZE);
+        reopens++;
+
+        long segments, sealed;
+        try (Stream<Path> files = Files.list(directory)) {
+            List<String> names = new ArrayList<>();
+            files.forEach(file -> names.add(file.getFileName().toString()));
+            segments = names.stream().filter(name -> name.endsWith(".dat")).count();
+            sealed = names.stream().filter(name -> name.endsWith(".idx")).count();
+        }
+        if (sealed < 2 || sealed != segments - 1) {
+            throw new AssertionError(segments + " segments, " + sealed + " sealed");
+        }
+        if (!log.getLocations().containsAll(expected.keySet())) {
+            throw new AssertionError("Locations after reopening: " + log.getLocations());
+        }
+        for (Map.Entry<String, List<Record>> entry : expected.entrySet()) {
+            List<Record> records = entry.getValue();
+            if (log.getNewestTime(entry.getKey()) != records.get(records.size() - 1).time) {
+                throw new AssertionError(entry.getKey() + ": newest time " + log.getNewestTime(entry.getKey()));
+            }
+        }
+
+        // Every record’s time, and one millisecond either side, as each end of a scan that reaches
+        // the neighbouring record on the other side, or all the way, or nowhere
+        int edgeScans = 0;
+        List<Record> edgeRecords = expected.get("location 0");
+        for (int i = 0; i < edgeRecords.size(); i++) {
+            long previous = edgeRecords.get(Math.max(i - 1, 0)).time;
+            long next = edgeRecords.get(Math.min(i + 1, edgeRecords.size() - 1)).time;
+            for (long delta = -1; delta <= 1; delta++) {
+                long time = edgeRecords.get(i).time + delta;
+                check(log, "location 0", time, time, edgeRecords);
+                check(log, "location 0", previous, time, edgeRecords);
+                check(log, "location 0", time, next, edgeRecords);
+                edgeScans += 3;
+            }
+        }
+        check(log, "location 0", Long.MIN_VALUE, Long.MAX_VALUE, edgeRecords);
+        int randomScans = checkScans(log, expected, random, 500);
+        check(log, "nowhere", Long.MIN_VALUE, Long.MAX_VALUE, List.of());
+
+        if (log.getOpenSealedSegmentCount() > TimeSeriesLog.MAX_OPEN_SEALED_SEGMENTS) {
+            throw new AssertionError(log.getOpenSealedSegmentCount() + " sealed segments open");
+        }
+        log.close();
+        System.out.printf("%d records in %d segments, reopened %d times; %d edge and %d random scans match%n",
+            appends, segments, reopens, edgeScans, randomScans);
+    }
+
+    private static int checkScans(TimeSeriesLog log, Map<String, List<Record>> expected, Random random, int scans)
+            throws IOException {
+        List<String> locations = new ArrayList<>(expected.keySet());
+        for (int i = 0; i < scans; i++) {
+            String location = locations.get(random.nextInt(locations.size()));
+            List<Record> records = expected.get(location);
+            long first = records.get(0).time, last = records.get(records.size() - 1).time;
+            long a = first - 1000 + (long) (random.nextDouble() * (last - first + 2000));
+            long b = random.nextInt(4) == 0 ? a : first - 1000 + (long) (random.nextDouble() * (last - first + 2000));
+            check(log, location, Math.min(a, b), Math.max(a, b), records);
+        }
+        return scans;
+    }
+
+    private static void check(TimeSeriesLog log, String location, long start, long end, List<Record> records)
+            throws IOException {
+        // Alternate which columns are read, including none
+        int[] columns = (start & 1) == 0 ? new int[] {0, 1, 2} : new int[] {(int) ((end & 0xff) % COLUMNS)};
+        if ((start & 7) == 3) {
+            columns = new int[0];
+        }
+        TimeSeriesLog.Slice slice = log.scan(location, start, end, columns);
+        String context = location + " from " + start + " to " + end;
+        int n = 0;
+        for (Record record : records) {
+            if (record.time < start || record.time > end) {
+                continue;
+            }
+            if (n >= slice.size() || slice.getTimes()[n] != record.time) {
+                throw new AssertionError(context + ": record " + n + " should be at " + record.time);
+            }
+            for (int column : columns) {
+                if (Float.floatToIntBits(slice.getColumn(column)[n]) != Float.floatToIntBits(record.values[column])) {
+                    throw new AssertionError(context + ": record " + n + ", column " + column + " is "
+                        + slice.getColumn(column)[n] + ", expected " + record.values[column]);
+                }
+            }
+            n++;
+        }
+        if (n != slice.size()) {
+            throw new AssertionError(context + ": " + slice.size() + " records, expected " + n);
+        }
+    }
+
+    private static void checkWeatherLog(Path directory) throws IOException {
+        List<String> locations = List.of("Saint Paul", "Fort Collins", "Reykjavík");
+        Map<String, List<WeatherData>> recorded = new HashMap<>();
+        WeatherLog log = new WeatherLog(directory);
+        for (int round = 0; round < 4; round++) {
+            for (int i = 0; i < locations.size(); i++) {
+                WeatherData data = WeatherDataFixtures.generateWeatherData(round * 10 + i);
+                if (!log.record(locations.get(i), data) || log.record(locations.get(i), data)) {
+                    throw new AssertionError("WeatherLog should record new data once, and ignore it after");
+                }
+                recorded.computeIfAbsent(locations.get(i), key -> new ArrayList<>()).add(data);
+            }
+            sleepPastMillisecond();  // fetch times are to the millisecond
+        }
+        log.close();
+
+        log = new WeatherLog(directory);
+        Date always = new Date(Long.MIN_VALUE), never = new Date(Long.MAX_VALUE);
+        for (String location : locations) {
+            List<WeatherData> data = recorded.get(location);
+            TimeSeriesLog.Slice observations = log.scanObservations(location, always, never,
+                ObservationColumn.TEMPERATURE, ObservationColumn.WIND_SPEED);
+            TimeSeriesLog.Slice forecasts = log.scanForecasts(location, always, never,
+                ForecastColumn.LEAD_HOURS, ForecastColumn.TEMPERATURE);
+            int forecast = 0;
+            for (int i = 0; i < data.size(); i++) {
+                WeatherData expected = data.get(i);
+                long issueTime = expected.getFetchTime().getTime();
+                if (observations.getTimes()[i] != issueTime
+                        || !same(observations.getColumn(ObservationColumn.TEMPERATURE.ordinal())[i],
+                            expected.getCurrentConditions().getTemperature())
+                        || !same(observations.getColumn(ObservationColumn.WIND_SPEED.ordinal())[i],
+                            expected.getCurrentConditions().getWindSpeed())) {
+                    throw new AssertionError(location + ": observation " + i + " differs");
+                }
+                for (ForecastConditions conditions : expected.getForecasts()) {
+                    if (conditions.getPredictionTime() == null) {
+                        continue;
+                    }
+                    float lead = (float) ((conditions.getPredictionTime().getTime() - issueTime) / 3_600_000.0);
+                    if (forecasts.getTimes()[forecast] != issueTime
+                            || forecasts.getColumn(ForecastColumn.LEAD_HOURS.ordinal())[forecast] != lead
+                            || !same(forecasts.getColumn(ForecastColumn.TEMPERATURE.ordinal())[forecast],
+                                conditions.getTemperature())) {
+                        throw new AssertionError(location + ": forecast " + forecast + " differs");
+                    }
+                    forecast++;
+                }
+            }
+            if (observations.size() != data.size() || forecasts.size() != forecast) {
+                throw new AssertionError(location + ": " + observations.size() + " observations and "
+                    + forecasts.size() + " forecasts read back, expected " + data.size() + " and " + forecast);
+            }
+        }
+        log.close();
+        System.out.println("WeatherLog read back everything recorded");
+    }
+
+    private static boolean same(float stored, Double value) {
+        return value == null ? Float.isNaN(stored) : stored == value.floatValue();
+    }
+
+    private static void sleepPastMillisecond() {
+        long now = System.currentTimeMillis();
+        while (System.currentTimeMillis() == now) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static class Record {
+        private final long time;
+        private final float[] values;
+
+        Record(long time, float[] values) {
+            this.time = time;
+            this.values = values;
+        }
+    }
+}
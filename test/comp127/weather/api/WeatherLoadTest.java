@@ -0,0 +1,139 @@
+package comp127.weather.api;
+
+import comp127.weather.api.RequestScheduler.Priority;
+
+import javax.swing.SwingUtilities;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fetches weather for thousands of locations at once from a {@link StubWeatherServer}, through
+ * the same providers, request queue, rate limiter, and UI-thread callbacks the app uses, and
+ * reports latency and throughput.
+ * <p>
+ * Arguments are name=value pairs:
+ * <ul>
+ *   <li>locations: how many distinct locations to fetch in each round (default 2000)</li>
+ *   <li>rounds: how many times to fetch them all; the first rounds warm up the JIT (default 3)</li>
+ *   <li>threads: request threads, i.e. api.request_threads (default 4, as in the app)</li>
+ *   <li>latency, jitter, errors, gzip: passed to the stub server (defaults 20 ms, 20 ms, 0, true)</li>
+ * </ul>
+ * Latency is from asking a provider for data to its callback running on the UI thread, which is
+ * what a user would see. Requests the queue drops or that fail never call back, so they are
+ * counted from the request queue’s stats instead.
+ */
+public class WeatherLoadTest {
+    private static final long TIMEOUT_MILLIS = 300_000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = StubWeatherServer.parseOptions(args);
+        int locations = Integer.parseInt(options.getOrDefault("locations", "2000"));
+        int rounds = Integer.parseInt(options.getOrDefault("rounds", "3"));
+
+        StubWeatherServer stub = new StubWeatherServer(0)
+            .setLatency(
+                Integer.parseInt(options.getOrDefault("latency", "20")),
+                Integer.parseInt(options.getOrDefault("jitter", "20")))
+            .setErrorRate(Double.parseDouble(options.getOrDefault("errors", "0")))
+            .setGzip(Boolean.parseBoolean(options.getOrDefault("gzip", "true")));
+        stub.start();
+
+        // Must be set before OpenWeatherProvider loads, as its request queue is static
+        System.setProperty("api.key", "load-test");
+        System.setProperty("api.base_url", stub.getBaseUrl());
+        System.setProperty("api.calls_per_minute", "1e12");
+        System.setProperty("api.burst", String.valueOf(Integer.MAX_VALUE / 4));
+        System.setProperty("api.request_threads", options.getOrDefault("threads", "4"));
+        System.setProperty("api.max_waiting_requests", String.valueOf(locations));
+
+        PrintStream out = System.out;
+        out.printf("%d locations, %s%n", locations, options);
+
+        OpenWeatherProvider[] providers = new OpenWeatherProvider[locations];
+        for (int i = 0; i < locations; i++) {
+            // A distinct coordinate per location, so that no requests merge
+            providers[i] = new OpenWeatherProvider(-80 + i / 360 * 0.5, -180 + i % 360);
+        }
+
+        // The providers log every request; at this volume, printing would be what we measured
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            for (int round = 1; round <= rounds; round++) {
+                runRound(round, providers, stub, out);
+            }
+        } finally {
+            System.setOut(out);
+            stub.stop();
+        }
+        System.exit(0);
+    }
+
+    private static void runRound(int round, OpenWeatherProvider[] providers, StubWeatherServer stub, PrintStream out)
+            throws Exception {
+        RequestScheduler.Stats before = OpenWeatherProvider.getRequestStats();
+        long stubRequestsBefore = stub.getRequestCount(), stubErrorsBefore = stub.getInjectedErrorCount();
+
+        int n = providers.length;
+        long[] latencies = new long[n];
+        AtomicInteger delivered = new AtomicInteger();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            int index = i;
+            long submitted = System.nanoTime();
+            providers[i].fetchWeather(Priority.BACKGROUND, data -> {
+                latencies[index] = System.nanoTime() - submitted;
+                delivered.incrementAndGet();
+            });
+        }
+
+        // Wait for every request to succeed, fail, or be dropped, then for the UI thread to run
+        // the callbacks of the ones that succeeded
+        RequestScheduler.Stats after;
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (true) {
+            after = OpenWeatherProvider.getRequestStats();
+            long finished = (after.getSucceededCount() - before.getSucceededCount())
+                + (after.getFailedCount() - before.getFailedCount())
+                + (after.getDroppedCount() - before.getDroppedCount());
+            if (finished >= n) {
+                break;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                out.printf("Round %d timed out with %d of %d requests finished%n", round, finished, n);
+                return;
+            }
+            Thread.sleep(5);
+        }
+        SwingUtilities.invokeAndWait(() -> { });
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        int count = delivered.get();
+        long[] sorted = Arrays.stream(latencies).filter(latency -> latency > 0).sorted().toArray();
+        out.printf(
+            "Round %d: %d delivered in %.2f s = %.0f locations/s, %.0f API calls/s%n"
+                + "  latency p50 %.0f ms, p90 %.0f ms, p99 %.0f ms, max %.0f ms%n"
+                + "  %d failed, %d dropped; stub served %d requests, injected %d errors%n",
+            round, count, elapsed, count / elapsed,
+            (stub.getRequestCount() - stubRequestsBefore) / elapsed,
+            percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99), percentile(sorted, 1),
+            after.getFailedCount() - before.getFailedCount(),
+            after.getDroppedCount() - before.getDroppedCount(),
+            stub.getRequestCount() - stubRequestsBefore,
+            stub.getInjectedErrorCount() - stubErrorsBefore);
+    }
+
+    /**
+     * Returns the given percentile of the sorted nanosecond times, in milliseconds.
+     */
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(fraction * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+}
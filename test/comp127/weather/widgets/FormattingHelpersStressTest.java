@@ -0,0 +1,138 @@
+package comp127.weather.widgets;
+
+import java.text.DateFormat;
+import java.text.DecimalFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Hammers FormattingHelpers from many threads at once and checks every result against a
+ * DecimalFormat or SimpleDateFormat owned by the checking thread, then compares throughput with
+ * those per-thread formats on realistic, often-repeated temperatures. Exits with an error on the
+ * first mismatch.
+ * <p>
+ * The numbers include exact and near ties, subnormals, negative zero, NaN, infinities, and values
+ * too large for the fixed-point path, as well as ordinary temperatures.
+ * <p>
+ * Arguments: the number of threads (default 8), numbers per thread (default 2000000), and a
+ * locale tag such as de-DE or ar-EG to run in (default: the system locale).
+ */
+public class FormattingHelpersStressTest {
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int numbersPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        if (args.length > 2) {
+            // Before FormattingHelpers loads, since it reads the locale’s symbols once
+            Locale.setDefault(Locale.forLanguageTag(args[2]));
+        }
+        System.out.printf("%d threads, %d numbers and %d dates each, locale %s%n",
+            threads, numbersPerThread, numbersPerThread / 8, Locale.getDefault());
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Long>> checks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long seed = t;
+                checks.add(() -> check(new Random(seed), numbersPerThread));
+            }
+            long began = System.nanoTime();
+            long checked = sum(pool.invokeAll(checks));
+            System.out.printf("Checked %d results in %.1f s; all matched%n", checked, (System.nanoTime() - began) / 1e9);
+
+            double helpers = throughput(pool, threads, numbersPerThread, true);
+            double decimalFormat = throughput(pool, threads, numbersPerThread, false);
+            System.out.printf("Repeated temperatures: roundOff %.1fM/s, per-thread DecimalFormat %.1fM/s (%.1fx)%n",
+                helpers / 1e6, decimalFormat / 1e6, helpers / decimalFormat);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static long check(Random random, int numbers) {
+        DecimalFormat decimalFormat = new DecimalFormat("#0.0");
+        DateFormat dayFormat = new SimpleDateFormat("E, MMM d");
+        DateFormat timeFormat = new SimpleDateFormat("h:mm a");
+        for (int i = 0; i < numbers; i++) {
+            double number = nextNumber(random);
+            String expected = decimalFormat.format(number), actual = FormattingHelpers.roundOff(number);
+            if (!expected.equals(actual)) {
+                throw new AssertionError("roundOff(" + number + ") was " + actual + ", expected " + expected);
+            }
+        }
+        for (int i = 0; i < numbers / 8; i++) {
+            // Within about 30 years of 2020, to the minute as forecasts are
+            Date date = new Date((1_577_836_800L + (random.nextInt() % 1_000_000_000L)) / 60 * 60_000);
+            String expectedDay = dayFormat.format(date), actualDay = FormattingHelpers.dayDate(date);
+            String expectedTime = timeFormat.format(date), actualTime = FormattingHelpers.time(date);
+            if (!expectedDay.equals(actualDay) || !expectedTime.equals(actualTime)) {
+                throw new AssertionError(date + " was " + actualDay + " " + actualTime
+                    + ", expected " + expectedDay + " " + expectedTime);
+            }
+        }
+        return numbers + numbers / 8 * 2;
+    }
+
+    private static double nextNumber(Random random) {
+        switch (random.nextInt(8)) {
+            case 0:  // an exact or near tie in the hundredths
+                double tie = (random.nextInt(40_001) - 20_000) / 20.0;
+                return random.nextBoolean() ? tie : Math.nextAfter(tie, random.nextBoolean() ? 1e9 : -1e9);
+            case 1:
+                return Double.longBitsToDouble(random.nextLong() & 0x000fffffffffffffL);  // subnormal
+            case 2:
+                double[] special = { Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, -0.0, 0.0,
+                    Double.MAX_VALUE, -Double.MIN_VALUE, 1e15, -1e15, Math.nextDown(1e15) };
+                return special[random.nextInt(special.length)];
+            case 3:
+                return (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(40) - 5);
+            default:  // a temperature as the API reports it
+                return (random.nextInt(3_000) - 1_000) / 100.0;
+        }
+    }
+
+    /**
+     * Returns numbers formatted per second across all threads, using FormattingHelpers or a
+     * DecimalFormat per thread. The values repeat, as a dashboard’s temperatures do.
+     */
+    private static double throughput(ExecutorService pool, int threads, int numbersPerThread, boolean helpers)
+            throws Exception {
+        List<Callable<Long>> runs = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            runs.add(() -> {
+                Random random = new Random(seed);
+                double[] temperatures = new double[64];
+                for (int i = 0; i < temperatures.length; i++) {
+                    temperatures[i] = (random.nextInt(1_200) - 200) / 10.0;
+                }
+                DecimalFormat decimalFormat = new DecimalFormat("#0.0");
+                long length = 0;
+                for (int i = 0; i < numbersPerThread; i++) {
+                    double number = temperatures[i & (temperatures.length - 1)];
+                    length += (helpers ? FormattingHelpers.roundOff(number) : decimalFormat.format(number)).length();
+                }
+                return length;
+            });
+        }
+        pool.invokeAll(runs);  // warm up
+        long began = System.nanoTime();
+        sum(pool.invokeAll(runs));
+        return (double) threads * numbersPerThread / ((System.nanoTime() - began) / 1e9);
+    }
+
+    private static long sum(List<Future<Long>> results) throws Exception {
+        long total = 0;
+        for (Future<Long> result : results) {
+            total += result.get();
+        }
+        return total;
+    }
+}
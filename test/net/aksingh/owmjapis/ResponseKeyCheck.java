@@ -0,0 +1,74 @@
+package net.aksingh.owmjapis;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Checks that once OpenWeatherMap has registered its response keys with the JSON tokenizer, the
+ * keys parsed from the recorded responses are the very String literals the response classes look
+ * them up with, and that the tokenizer’s table of registered keys stays bounded. Run with
+ * test-res on the classpath; exits with an error on the first problem.
+ */
+public class ResponseKeyCheck {
+    /** Literals that also appear among OpenWeatherMap’s registered keys. */
+    private static final Set<String> REGISTERED = Set.of(
+        "temp", "main", "dt", "dt_txt", "weather", "wind", "speed", "list", "city", "coord", "sys");
+
+    public static void main(String[] args) throws Exception {
+        new OpenWeatherMap("check");
+
+        int checked = 0;
+        for (String name : new String[] { "forecast.json", "weather.json" }) {
+            List<String> keys = new ArrayList<>();
+            collectKeys(new JSONObject(XmlResponseCheck.load(name)), keys);
+            for (String key : keys) {
+                String literal = REGISTERED.stream().filter(key::equals).findFirst().orElse(null);
+                if (literal != null) {
+                    if (key != literal) {
+                        throw new AssertionError(name + ": key \"" + key + "\" is not the registered instance");
+                    }
+                    checked++;
+                }
+            }
+        }
+
+        // Registering again changes nothing; registering too many fails without registering any
+        JSONTokener.registerCanonicalKeys("temp", "main");
+        String[] tooMany = new String[64];
+        for (int i = 0; i < tooMany.length; i++) {
+            tooMany[i] = "extra" + i;
+        }
+        try {
+            JSONTokener.registerCanonicalKeys(tooMany);
+            throw new AssertionError("Registering 64 more keys should fail");
+        } catch (IllegalStateException expected) {
+        }
+        String parsed = new JSONObject("{\"extra0\": 1}").keySet().iterator().next();
+        if (parsed == tooMany[0]) {
+            throw new AssertionError("A failed registration registered some of its keys");
+        }
+        if (new JSONObject("{\"temp\": 1}").keySet().iterator().next() != "temp") {
+            throw new AssertionError("A registered key lost its canonical instance");
+        }
+        System.out.println(checked + " parsed keys are the registered literals; the key table is bounded");
+    }
+
+    private static void collectKeys(Object value, List<String> keys) {
+        if (value instanceof JSONObject) {
+            JSONObject object = (JSONObject) value;
+            for (String key : object.keySet()) {
+                keys.add(key);
+                collectKeys(object.get(key), keys);
+            }
+        } else if (value instanceof JSONArray) {
+            for (Object element : (JSONArray) value) {
+                collectKeys(element, keys);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package net.aksingh.owmjapis;
+
+import org.json.JSONObject;
+import org.json.XML;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Times reading the recorded forecast response into an HourlyForecast from JSON and from XML,
+ * and splits the XML time into reading the document and building the model from what was read.
+ * Also times XML.toJSONObject, the generic path, for comparison.
+ * <p>
+ * Arguments: the number of parses per round (default 3000) and of rounds (default 6).
+ */
+public class XmlResponseBenchmark {
+    private static volatile Object sink;
+
+    public static void main(String[] args) throws Exception {
+        int parses = args.length > 0 ? Integer.parseInt(args[0]) : 3000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        String json = XmlResponseCheck.load("forecast.json");
+        String xml = XmlResponseCheck.load("forecast.xml");
+        JSONObject read = XmlResponseReader.hourlyForecast(xml);
+
+        double jsonParse = time(rounds, parses, () -> new JSONObject(json));
+        double jsonModel = time(rounds, parses, () -> new HourlyForecast(new JSONObject(json)));
+        double xmlRead = time(rounds, parses, () -> XmlResponseReader.hourlyForecast(xml));
+        double xmlModel = time(rounds, parses, () -> new HourlyForecast(XmlResponseReader.hourlyForecast(xml)));
+        double modelOnly = time(rounds, parses, () -> new HourlyForecast(read));
+        double generic = time(rounds, parses, () -> XML.toJSONObject(xml));
+
+        System.out.printf("forecast: %d chars of JSON, %d of XML, times per response%n", json.length(), xml.length());
+        System.out.printf("  JSON: %6.1f us parsing, %6.1f us with the model%n", jsonParse, jsonModel);
+        System.out.printf("  XML:  %6.1f us reading, %6.1f us with the model (%.2fx JSON)%n",
+            xmlRead, xmlModel, xmlModel / jsonModel);
+        System.out.printf("  model from what XmlResponseReader read: %6.1f us%n", modelOnly);
+        System.out.printf("  XML.toJSONObject alone: %6.1f us%n", generic);
+    }
+
+    /**
+     * Returns the fastest round’s time per call, in microseconds.
+     */
+    private static double time(int rounds, int calls, Callable<Object> call) throws Exception {
+        double best = Double.POSITIVE_INFINITY;
+        for (int round = 0; round < rounds; round++) {
+            long began = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                sink = call.call();
+            }
+            best = Math.min(best, (System.nanoTime() - began) / 1e3 / calls);
+        }
+        return best;
+    }
+}
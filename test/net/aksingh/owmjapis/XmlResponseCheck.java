@@ -0,0 +1,130 @@
+package net.aksingh.owmjapis;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Checks that the recorded mode=xml responses in test-res/stub-responses parse to the same model
+ * values as the equivalent JSON responses, for every field the XML format carries, and that an
+ * XML error document gives an invalid response with its code. Run with test-res on the
+ * classpath; exits with an error if anything differs.
+ */
+public class XmlResponseCheck {
+    public static void main(String[] args) throws Exception {
+        OpenWeatherMap owm = new OpenWeatherMap("check");
+        List<String> problems = new ArrayList<>();
+
+        compare("weather",
+            describe(owm.currentWeatherFromRawResponse(load("weather.json"))),
+            describe(owm.currentWeatherFromRawResponse(load("weather.xml"))),
+            problems);
+        compare("forecast",
+            describe(owm.hourlyForecastFromRawResponse(load("forecast.json"))),
+            describe(owm.hourlyForecastFromRawResponse(load("forecast.xml"))),
+            problems);
+
+        CurrentWeather error = owm.currentWeatherFromRawResponse(
+            "<ClientError><cod>404</cod><message>city not found</message></ClientError>");
+        if (error.isValid() || error.getResponseCode() != 404) {
+            problems.add("error document: valid " + error.isValid() + ", code " + error.getResponseCode());
+        }
+
+        if (!problems.isEmpty()) {
+            problems.forEach(System.err::println);
+            throw new AssertionError(problems.size() + " differences between the XML and JSON responses");
+        }
+        System.out.println("XML and JSON responses match");
+    }
+
+    private static void compare(String name, List<String> json, List<String> xml, List<String> problems) {
+        if (json.size() != xml.size()) {
+            problems.add(name + ": " + json.size() + " values from JSON, " + xml.size() + " from XML");
+        }
+        for (int i = 0; i < Math.min(json.size(), xml.size()); i++) {
+            if (!json.get(i).equals(xml.get(i))) {
+                problems.add(name + ": JSON " + json.get(i) + ", XML " + xml.get(i));
+            }
+        }
+    }
+
+    private static List<String> describe(CurrentWeather weather) {
+        List<String> values = new ArrayList<>();
+        values.add("valid=" + weather.isValid());
+        values.add("code=" + weather.getResponseCode());
+        values.add("cityCode=" + weather.getCityCode());
+        values.add("cityName=" + weather.getCityName());
+        values.add("dateTime=" + weather.getDateTime());
+        values.add("lat=" + weather.getCoordInstance().getLatitude());
+        values.add("lon=" + weather.getCoordInstance().getLongitude());
+        values.add("country=" + weather.getSysInstance().getCountryCode());
+        values.add("sunrise=" + weather.getSysInstance().getSunriseTime());
+        values.add("sunset=" + weather.getSysInstance().getSunsetTime());
+        values.add("windGust=" + weather.getWindInstance().getWindGust());
+        describe(weather, values);
+        return values;
+    }
+
+    private static List<String> describe(HourlyForecast forecast) {
+        List<String> values = new ArrayList<>();
+        values.add("valid=" + forecast.isValid());
+        values.add("code=" + forecast.getResponseCode());
+        values.add("cityCode=" + forecast.getCityInstance().getCityCode());
+        values.add("cityName=" + forecast.getCityInstance().getCityName());
+        values.add("country=" + forecast.getCityInstance().getCountryCode());
+        values.add("lat=" + forecast.getCityInstance().getCoordInstance().getLatitude());
+        values.add("lon=" + forecast.getCityInstance().getCoordInstance().getLongitude());
+        values.add("count=" + forecast.getForecasts().size());
+        for (HourlyForecast.Forecast entry : forecast.getForecasts()) {
+            values.add("dateTimeText=" + entry.getDateTimeText());
+            values.add("dateTime=" + entry.getDateTime());
+            values.add("minTemperature=" + entry.getMainInstance().getMinTemperature());
+            values.add("maxTemperature=" + entry.getMainInstance().getMaxTemperature());
+            describe(entry, values);
+        }
+        return values;
+    }
+
+    /**
+     * The fields that both current weather and forecasts have, as the widgets read them.
+     */
+    private static void describe(AbstractWeather weather, List<String> values) {
+        AbstractWeather.Main main = weather instanceof CurrentWeather
+            ? ((CurrentWeather) weather).getMainInstance()
+            : ((HourlyForecast.Forecast) weather).getMainInstance();
+        AbstractWeather.Wind wind = weather instanceof CurrentWeather
+            ? ((CurrentWeather) weather).getWindInstance()
+            : ((HourlyForecast.Forecast) weather).getWindInstance();
+        AbstractWeather.Clouds clouds = weather instanceof CurrentWeather
+            ? ((CurrentWeather) weather).getCloudsInstance()
+            : ((HourlyForecast.Forecast) weather).getCloudsInstance();
+        values.add("temperature=" + main.getTemperature());
+        values.add("pressure=" + main.getPressure());
+        values.add("humidity=" + main.getHumidity());
+        values.add("windSpeed=" + wind.getWindSpeed());
+        values.add("windDegree=" + wind.getWindDegree());
+        values.add("clouds=" + clouds.getPercentageOfClouds());
+        values.add("weatherCount=" + weather.getWeatherCount());
+        AbstractWeather.Weather first = weather.getWeatherInstance(0);
+        values.add("weatherCode=" + first.getWeatherCode());
+        values.add("weatherDescription=" + first.getWeatherDescription());
+        values.add("weatherIcon=" + first.getWeatherIconName());
+    }
+
+    static String load(String name) throws IOException {
+        String resource = "/stub-responses/" + name;
+        InputStream in = XmlResponseCheck.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IOException("No " + resource + " on the classpath; add test-res to it");
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return reader.lines().collect(joining("\n"));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.json;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Helpers shared by the benchmarks in this package. They are plain main() programs, like
+ * WeatherLoadTest; run them with the compiled sources, the tests, and test-res on the classpath.
+ */
+final class Benchmarks {
+    /**
+     * Results are stored here so the JIT can’t drop the work that produced them.
+     */
+    static volatile Object sink;
+
+    private Benchmarks() {
+    }
+
+    /**
+     * Reads a recorded OpenWeather response from test-res/stub-responses.
+     */
+    static String loadPayload(String name) throws IOException {
+        String resource = "/stub-responses/" + name;
+        InputStream in = Benchmarks.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IOException("No " + resource + " on the classpath; add test-res to it");
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return reader.lines().collect(joining("\n"));
+        }
+    }
+
+    /**
+     * Runs the operation in several timed rounds of the given size and returns the fastest round’s
+     * time per operation, in nanoseconds. The earlier rounds warm up the JIT.
+     */
+    static double nanosPerOperation(int rounds, int operationsPerRound, Operation operation) throws Exception {
+        double best = Double.POSITIVE_INFINITY;
+        for (int round = 0; round < rounds; round++) {
+            long began = System.nanoTime();
+            for (int i = 0; i < operationsPerRound; i++) {
+                sink = operation.run();
+            }
+            best = Math.min(best, (System.nanoTime() - began) / (double) operationsPerRound);
+        }
+        return best;
+    }
+
+    /**
+     * Returns the bytes allocated by one run of the operation, averaged over the given number of
+     * runs, as counted by the JVM for the current thread.
+     */
+    static double bytesPerOperation(int operations, Operation operation) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < operations; i++) {
+            sink = operation.run();
+        }
+        return (threads.getThreadAllocatedBytes(thread) - before) / (double) operations;
+    }
+
+    /**
+     * Returns the heap in use after a full collection, in bytes. Good to a few kilobytes, so
+     * measure many retained copies of whatever is being sized.
+     */
+    static long usedHeapAfterGc() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(50);
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    /**
+     * Returns the integer argument at the given position, or the default if there isn’t one.
+     */
+    static int intArgument(String[] args, int index, int defaultValue) {
+        return args.length > index ? Integer.parseInt(args[index]) : defaultValue;
+    }
+
+    interface Operation {
+        Object run() throws Exception;
+    }
+}
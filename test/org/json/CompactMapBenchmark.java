@@ -0,0 +1,97 @@
+package org.json;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the heap that JSONObject’s maps take for a parsed forecast response. Each object in
+ * the recorded response is copied into a CompactMap, as JSONObject now uses, and into a HashMap,
+ * as it used before. The same key and value instances go into both, so only the maps themselves
+ * are measured. Also reports the whole parsed document’s retained size.
+ * <p>
+ * Arguments: the number of documents to hold at once (default 2000). Run with a heap big enough
+ * for them, e.g. -Xmx512m.
+ */
+public class CompactMapBenchmark {
+    public static void main(String[] args) throws Exception {
+        int documents = Benchmarks.intArgument(args, 0, 2000);
+        String payload = Benchmarks.loadPayload("forecast.json");
+
+        List<List<Object[]>> entries = new ArrayList<>();
+        for (int i = 0; i < documents; i++) {
+            List<Object[]> objects = new ArrayList<>();
+            collectObjects(new JSONObject(payload), objects);
+            entries.add(objects);
+        }
+        int objectsPerDocument = entries.get(0).size();
+
+        long baseline = Benchmarks.usedHeapAfterGc();
+        List<Map<String, Object>> compact = copyAll(entries, true);
+        double compactBytes = (Benchmarks.usedHeapAfterGc() - baseline) / (double) documents;
+        Benchmarks.sink = compact.size();
+        compact = null;
+
+        baseline = Benchmarks.usedHeapAfterGc();
+        List<Map<String, Object>> hashed = copyAll(entries, false);
+        double hashBytes = (Benchmarks.usedHeapAfterGc() - baseline) / (double) documents;
+        Benchmarks.sink = hashed.size();
+        hashed = null;
+        entries = null;
+
+        baseline = Benchmarks.usedHeapAfterGc();
+        List<JSONObject> parsed = new ArrayList<>();
+        for (int i = 0; i < documents; i++) {
+            parsed.add(new JSONObject(payload));
+        }
+        double documentBytes = (Benchmarks.usedHeapAfterGc() - baseline) / (double) documents;
+        Benchmarks.sink = parsed.size();
+
+        System.out.printf("forecast.json: %d objects per document, %d documents held%n",
+            objectsPerDocument, documents);
+        System.out.printf("  HashMap:    %8.0f bytes per document%n", hashBytes);
+        System.out.printf("  CompactMap: %8.0f bytes per document (%.0f%% less)%n",
+            compactBytes, 100 * (1 - compactBytes / hashBytes));
+        System.out.printf("  Whole parsed document: %.0f bytes%n", documentBytes);
+    }
+
+    /**
+     * Adds the entries of the given object and of every object nested in it, one array of
+     * alternating keys and values per object.
+     */
+    private static void collectObjects(Object value, List<Object[]> objects) {
+        if (value instanceof JSONObject) {
+            JSONObject object = (JSONObject) value;
+            Object[] keysAndValues = new Object[object.length() * 2];
+            int i = 0;
+            for (String key : object.keySet()) {
+                keysAndValues[i++] = key;
+                keysAndValues[i++] = object.opt(key);
+                collectObjects(object.opt(key), objects);
+            }
+            objects.add(keysAndValues);
+        } else if (value instanceof JSONArray) {
+            for (Object element : (JSONArray) value) {
+                collectObjects(element, objects);
+            }
+        }
+    }
+
+    /**
+     * Builds maps the way parsing does: empty with the default capacity, then one put per key.
+     */
+    private static List<Map<String, Object>> copyAll(List<List<Object[]>> entries, boolean compact) {
+        List<Map<String, Object>> maps = new ArrayList<>();
+        for (List<Object[]> document : entries) {
+            for (Object[] keysAndValues : document) {
+                Map<String, Object> map = compact ? new CompactMap() : new HashMap<>();
+                for (int i = 0; i < keysAndValues.length; i += 2) {
+                    map.put((String) keysAndValues[i], keysAndValues[i + 1]);
+                }
+                maps.add(map);
+            }
+        }
+        return maps;
+    }
+}
@@ -0,0 +1,179 @@
+package org.json;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Checks that lazily parsed numbers read back as stringToValue would have converted them, from
+ * every accessor and from several threads at once, then profiles what the first read of a parsed
+ * number allocates. Reading an integer through optInt, optLong or optDouble should allocate
+ * nothing; only get() and opt() box. Fails otherwise.
+ * <p>
+ * Arguments: the number of arrays to read (default 200), of numbers in each (default 1000), and
+ * of threads reading at once (default 4).
+ */
+public class JSONNumberBenchmark {
+    /** Less than one small box per number read. */
+    private static final double MAX_PRIMITIVE_BYTES_PER_READ = 1;
+
+    private static final String[] BOUNDARY_TOKENS = {
+        "0", "1", "-1", "127", "128", "-128", "-129", "2147483647", "2147483648", "-2147483648",
+        "-2147483649", "999999999999999999", "-999999999999999999", "0.5", "-0.25", "1e3", "1E-7",
+        "6.02e23", "-1.5e+12", "3.141592653589793", "12345678901234567.5", "0.1", "1e99", "4.9e-99"
+    };
+
+    public static void main(String[] args) throws Exception {
+        int arrays = Benchmarks.intArgument(args, 0, 200);
+        int numbers = Benchmarks.intArgument(args, 1, 1000);
+        int threads = Benchmarks.intArgument(args, 2, 4);
+
+        checkBoundaries();
+        checkConcurrentReads(threads, numbers);
+
+        Random random = new Random(127);
+        StringBuilder integers = new StringBuilder("["), decimals = new StringBuilder("[");
+        for (int i = 0; i < numbers; i++) {
+            integers.append(i == 0 ? "" : ",").append(1000 + random.nextInt(Integer.MAX_VALUE - 1000));
+            decimals.append(i == 0 ? "" : ",").append((random.nextInt(100_000) - 50_000) / 100.0);
+        }
+        integers.append(']');
+        decimals.append(']');
+        double intBytes = bytesPerFirstRead(integers.toString(), arrays, (array, i) -> array.optInt(i));
+        double longBytes = bytesPerFirstRead(integers.toString(), arrays, (array, i) -> array.optLong(i));
+        double doubleBytes = bytesPerFirstRead(integers.toString(), arrays, (array, i) -> (long) array.optDouble(i));
+        double boxedBytes = bytesPerFirstRead(integers.toString(), arrays, (array, i) -> array.get(i).hashCode());
+        double decimalBytes = bytesPerFirstRead(decimals.toString(), arrays, (array, i) -> (long) array.optDouble(i));
+
+        System.out.printf("Bytes allocated by the first read of a parsed number:%n");
+        System.out.printf("  integer, optInt:    %6.1f%n", intBytes);
+        System.out.printf("  integer, optLong:   %6.1f%n", longBytes);
+        System.out.printf("  integer, optDouble: %6.1f%n", doubleBytes);
+        System.out.printf("  integer, get:       %6.1f (boxed)%n", boxedBytes);
+        System.out.printf("  decimal, optDouble: %6.1f (including Double.parseDouble)%n", decimalBytes);
+        if (Math.max(intBytes, Math.max(longBytes, doubleBytes)) > MAX_PRIMITIVE_BYTES_PER_READ) {
+            throw new AssertionError("Reading integers through the primitive accessors allocated more than "
+                + MAX_PRIMITIVE_BYTES_PER_READ + " bytes per number");
+        }
+    }
+
+    private static void checkBoundaries() {
+        for (String token : BOUNDARY_TOKENS) {
+            Object expected = JSONObject.stringToValue(token);
+            JSONNumber number = JSONNumber.parse(token);
+            if (number == null) {
+                continue;  // left to stringToValue
+            }
+            Number value = (Number) expected;
+            // Each accessor first, since the first read parses
+            for (int first = 0; first < 6; first++) {
+                JSONNumber fresh = JSONNumber.parse(token);
+                for (int k = 0; k < 6; k++) {
+                    int accessor = (first + k) % 6;
+                    boolean matches;
+                    switch (accessor) {
+                    case 0:
+                        matches = fresh.value().equals(expected);
+                        break;
+                    case 1:
+                        matches = fresh.intValue() == value.intValue();
+                        break;
+                    case 2:
+                        matches = fresh.longValue() == value.longValue();
+                        break;
+                    case 3:
+                        matches = Float.compare(fresh.floatValue(), value.floatValue()) == 0;
+                        break;
+                    case 4:
+                        matches = Double.compare(fresh.doubleValue(), value.doubleValue()) == 0;
+                        break;
+                    default:
+                        matches = fresh.hashCode() == expected.hashCode() && fresh.toString().equals(expected.toString())
+                            && fresh.equals(expected);
+                        break;
+                    }
+                    if (!matches) {
+                        throw new AssertionError("Token " + token + ": accessor " + accessor + " differs from "
+                            + expected + " (" + expected.getClass().getSimpleName() + ")");
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Has several threads read each freshly parsed array at once, so that they race to parse the
+     * same numbers, and checks that every read sees the right value.
+     */
+    private static void checkConcurrentReads(int threads, int numbers) throws Exception {
+        Random random = new Random(1);
+        long[] expected = new long[numbers];
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < numbers; i++) {
+            expected[i] = random.nextLong() >> random.nextInt(63);
+            json.append(i == 0 ? "" : ",").append(expected[i]);
+        }
+        json.append(']');
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 200; round++) {
+                JSONArray array = new JSONArray(json.toString());
+                List<Callable<Boolean>> readers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int offset = t;
+                    readers.add(() -> {
+                        for (int i = 0; i < numbers; i++) {
+                            int index = (i + offset) % numbers;
+                            long read = offset % 2 == 0 ? array.optLong(index) : ((Number) array.get(index)).longValue();
+                            if (read != expected[index]) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    });
+                }
+                for (Future<Boolean> result : pool.invokeAll(readers)) {
+                    if (!result.get()) {
+                        throw new AssertionError("A thread read a wrong value in round " + round);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private interface Read {
+        long read(JSONArray array, int index);
+    }
+
+    /**
+     * Parses the arrays up front, then returns the bytes allocated per number by reading every
+     * number once. Warms up on a separate set of arrays first.
+     */
+    private static double bytesPerFirstRead(String json, int arrays, Read read) throws Exception {
+        for (int warmUp = 0; warmUp < 2; warmUp++) {
+            JSONArray[] parsed = new JSONArray[arrays];
+            for (int a = 0; a < arrays; a++) {
+                parsed[a] = new JSONArray(json);
+            }
+            long[] total = new long[1];
+            double bytes = Benchmarks.bytesPerOperation(1, () -> {
+                for (JSONArray array : parsed) {
+                    for (int i = 0; i < array.length(); i++) {
+                        total[0] += read.read(array, i);
+                    }
+                }
+                return total;
+            });
+            if (warmUp == 1) {
+                return bytes / ((double) arrays * parsed[0].length());
+            }
+        }
+        throw new IllegalStateException();
+    }
+}
@@ -0,0 +1,102 @@
+package org.json;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Times pulling fields out of every entry of a large forecast array with JSONPointer: one
+ * pointer at a time as before compilation (replicated here, since that code is gone), one
+ * compiled pointer at a time, and all of them in a single {@link JSONPointer.Batch}.
+ * <p>
+ * The document is the recorded forecast response with its list repeated to the given length.
+ * <p>
+ * Arguments: the number of forecast entries (default 1000) and of rounds (default 5).
+ */
+public class JSONPointerBenchmark {
+    private static final String[] FIELDS = {
+        "dt", "main/temp", "main/temp_min", "main/temp_max", "main/humidity",
+        "wind/speed", "wind/deg", "clouds/all", "weather/0/icon", "weather/0/description"
+    };
+
+    public static void main(String[] args) throws Exception {
+        int entries = Benchmarks.intArgument(args, 0, 1000);
+        int rounds = Benchmarks.intArgument(args, 1, 5);
+
+        JSONObject document = makeDocument(entries);
+        List<JSONPointer> pointers = new ArrayList<>();
+        for (int i = 0; i < entries; i++) {
+            for (String field : FIELDS) {
+                pointers.add(new JSONPointer("/list/" + i + "/" + field));
+            }
+        }
+        List<String[]> tokenLists = new ArrayList<>();
+        for (JSONPointer pointer : pointers) {
+            tokenLists.add(pointer.toString().substring(1).split("/"));
+        }
+        JSONPointer.Batch batch = new JSONPointer.Batch(pointers);
+        Object[] results = new Object[batch.size()];
+
+        batch.queryFrom(document, results);
+        for (int i = 0; i < pointers.size(); i++) {
+            Object uncompiled = queryUncompiled(tokenLists.get(i), document);
+            if (!uncompiled.equals(pointers.get(i).queryFrom(document)) || !uncompiled.equals(results[i])) {
+                throw new AssertionError("Pointer " + pointers.get(i) + " gave different results");
+            }
+        }
+
+        int passes = Math.max(1, 200_000 / pointers.size());
+        double uncompiledNanos = Benchmarks.nanosPerOperation(rounds, passes, () -> {
+            for (String[] tokens : tokenLists) {
+                Benchmarks.sink = queryUncompiled(tokens, document);
+            }
+            return null;
+        });
+        double compiledNanos = Benchmarks.nanosPerOperation(rounds, passes, () -> {
+            for (JSONPointer pointer : pointers) {
+                Benchmarks.sink = pointer.queryFrom(document);
+            }
+            return null;
+        });
+        double batchNanos = Benchmarks.nanosPerOperation(rounds, passes, () -> {
+            batch.queryFrom(document, results);
+            return results;
+        });
+
+        System.out.printf("%d entries, %d pointers, time to evaluate them all%n", entries, pointers.size());
+        System.out.printf("  uncompiled: %8.0f us%n", uncompiledNanos / 1e3);
+        System.out.printf("  compiled:   %8.0f us (%.2fx)%n", compiledNanos / 1e3, uncompiledNanos / compiledNanos);
+        System.out.printf("  batch:      %8.0f us (%.2fx)%n", batchNanos / 1e3, uncompiledNanos / batchNanos);
+    }
+
+    private static JSONObject makeDocument(int entries) throws Exception {
+        JSONObject recorded = new JSONObject(Benchmarks.loadPayload("forecast.json"));
+        JSONArray list = recorded.getJSONArray("list");
+        StringBuilder text = new StringBuilder("{\"city\":").append(recorded.get("city")).append(",\"list\":[");
+        for (int i = 0; i < entries; i++) {
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(list.get(i % list.length()));
+        }
+        return new JSONObject(text.append("]}").toString());
+    }
+
+    /**
+     * Evaluates a pointer the way JSONPointer.queryFrom did before pointers were compiled:
+     * unescaping each token and parsing array indices on every call.
+     */
+    private static Object queryUncompiled(String[] tokens, Object document) {
+        Object current = document;
+        for (String token : tokens) {
+            if (current instanceof JSONObject) {
+                current = ((JSONObject) current).opt(token.replace("~1", "/").replace("~0", "~")
+                    .replace("\\\"", "\"").replace("\\\\", "\\"));
+            } else if (current instanceof JSONArray) {
+                current = ((JSONArray) current).get(Integer.parseInt(token));
+            } else {
+                throw new JSONPointerException(current + " is not an array or object");
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,48 @@
+package org.json;
+
+import java.io.StringWriter;
+
+/**
+ * Times writing the recorded OpenWeather responses back out as compact JSON three ways: through
+ * write(Writer), the generic path that toString() used to take; through toString(), which now
+ * uses JSONSerializer; and through one JSONSerializer reused for every document, as the on-disk
+ * cache does.
+ * <p>
+ * Arguments: the number of documents written per round (default 20000) and of rounds (default 5).
+ */
+public class JSONSerializerBenchmark {
+    public static void main(String[] args) throws Exception {
+        int writes = Benchmarks.intArgument(args, 0, 20_000);
+        int rounds = Benchmarks.intArgument(args, 1, 5);
+
+        for (String name : new String[] { "forecast.json", "weather.json" }) {
+            JSONObject document = new JSONObject(Benchmarks.loadPayload(name));
+            JSONSerializer serializer = new JSONSerializer();
+            String expected = document.write(new StringWriter()).toString();
+            if (!expected.equals(document.toString()) || !expected.equals(serializer.write(document).toString())) {
+                throw new AssertionError("JSONSerializer and write(Writer) wrote " + name + " differently");
+            }
+
+            double writerNanos = Benchmarks.nanosPerOperation(rounds, writes,
+                () -> document.write(new StringWriter()).toString());
+            double toStringNanos = Benchmarks.nanosPerOperation(rounds, writes,
+                document::toString);
+            double reusedNanos = Benchmarks.nanosPerOperation(rounds, writes,
+                () -> serializer.reset().write(document).length());
+            double writerBytes = Benchmarks.bytesPerOperation(writes,
+                () -> document.write(new StringWriter()).toString());
+            double toStringBytes = Benchmarks.bytesPerOperation(writes,
+                document::toString);
+            double reusedBytes = Benchmarks.bytesPerOperation(writes,
+                () -> serializer.reset().write(document).length());
+
+            System.out.printf("%s (%d chars)%n", name, expected.length());
+            System.out.printf("  write(Writer):       %7.1f us, %8.0f bytes per document%n",
+                writerNanos / 1e3, writerBytes);
+            System.out.printf("  toString():          %7.1f us, %8.0f bytes per document (%.2fx)%n",
+                toStringNanos / 1e3, toStringBytes, writerNanos / toStringNanos);
+            System.out.printf("  reused serializer:   %7.1f us, %8.0f bytes per document (%.2fx)%n",
+                reusedNanos / 1e3, reusedBytes, writerNanos / reusedNanos);
+        }
+    }
+}
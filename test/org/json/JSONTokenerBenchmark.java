@@ -0,0 +1,37 @@
+package org.json;
+
+import java.io.StringReader;
+
+/**
+ * Times parsing the recorded OpenWeather responses with the in-memory JSONTokener path that
+ * JSONObject(String) uses, against the Reader path that all input used to take.
+ * <p>
+ * Arguments: the number of parses per round (default 20000) and of rounds (default 5).
+ */
+public class JSONTokenerBenchmark {
+    public static void main(String[] args) throws Exception {
+        int parses = Benchmarks.intArgument(args, 0, 20_000);
+        int rounds = Benchmarks.intArgument(args, 1, 5);
+
+        for (String name : new String[] { "forecast.json", "weather.json" }) {
+            String payload = Benchmarks.loadPayload(name);
+            if (!new JSONObject(payload).similar(new JSONObject(new JSONTokener(new StringReader(payload))))) {
+                throw new AssertionError("String and Reader input parsed " + name + " differently");
+            }
+
+            double stringNanos = Benchmarks.nanosPerOperation(rounds, parses,
+                () -> new JSONObject(payload));
+            double readerNanos = Benchmarks.nanosPerOperation(rounds, parses,
+                () -> new JSONObject(new JSONTokener(new StringReader(payload))));
+            double stringBytes = Benchmarks.bytesPerOperation(parses,
+                () -> new JSONObject(payload));
+            double readerBytes = Benchmarks.bytesPerOperation(parses,
+                () -> new JSONObject(new JSONTokener(new StringReader(payload))));
+
+            System.out.printf("%s (%d chars)%n", name, payload.length());
+            System.out.printf("  String: %8.1f us, %8.0f bytes per parse%n", stringNanos / 1e3, stringBytes);
+            System.out.printf("  Reader: %8.1f us, %8.0f bytes per parse%n", readerNanos / 1e3, readerBytes);
+            System.out.printf("  speedup %.2fx%n", readerNanos / stringNanos);
+        }
+    }
+}